@@ -0,0 +1,94 @@
+package ru.practicum.shareit.benchmark;
+
+import org.h2.tools.Server;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to insert {@code rows} items in one transaction through {@link ItemRepository#saveAll}.
+ * The database is an H2 server on the loopback interface, so every statement pays a network
+ * round trip as it would against the production database.
+ * A {@code batchSize} of 0 turns JDBC batching off and sends one insert per row, as the former
+ * identity ids forced; 50 matches the allocation size of the id sequences.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="BulkInsertBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class BulkInsertBenchmark {
+    @Param({"0", "50"})
+    private int batchSize;
+    @Param({"100", "1000"})
+    private int rows;
+
+    private Server server;
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private TransactionTemplate transactionTemplate;
+    private User owner;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        server = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:tcp://localhost:" + server.getPort() + "/mem:benchmark",
+                        "--spring.jpa.properties.hibernate.jdbc.batch_size=" + batchSize,
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN");
+        itemRepository = context.getBean(ItemRepository.class);
+        transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        owner = context.getBean(UserRepository.class)
+                .save(User.builder().name("owner").email("owner@mail.com").build());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        server.stop();
+    }
+
+    @Benchmark
+    public List<Item> saveAll() {
+        List<Item> items = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            items.add(Item.builder()
+                    .name("item" + i)
+                    .description("description of item " + i)
+                    .available(true)
+                    .owner(owner)
+                    .build());
+        }
+        return transactionTemplate.execute(status -> itemRepository.saveAll(items));
+    }
+}
@@ -0,0 +1,82 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.item.dto.ItemRespDto;
+import ru.practicum.shareit.item.service.ItemService;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of {@link ItemService#findAll}, the owner's item listing with the last and next
+ * booking and the comments of every item, against an in-memory H2 database filled by the
+ * {@code datagen} profile. Owners are visited in turn, so hot owners with full pages and cold
+ * owners with a few items are both measured.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="ItemServiceBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ItemServiceBenchmark {
+    @Param({"1000"})
+    private int users;
+    @Param({"10000", "50000"})
+    private int items;
+    @Param({"100000", "500000"})
+    private int bookings;
+    @Param({"20"})
+    private int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private ItemService itemService;
+    private long ownerId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("datagen")
+                .run("--spring.datasource.url=jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1",
+                        "--shareit.datagen.users=" + users,
+                        "--shareit.datagen.requests=" + users,
+                        "--shareit.datagen.items=" + items,
+                        "--shareit.datagen.bookings=" + bookings,
+                        "--shareit.datagen.comments=" + items,
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN");
+        itemService = context.getBean(ItemService.class);
+        ownerId = 1;
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<ItemRespDto> findAll() {
+        List<ItemRespDto> page = itemService.findAll(ownerId, 0, pageSize);
+        ownerId = ownerId % users + 1;
+        return page;
+    }
+}
@@ -0,0 +1,122 @@
+package ru.practicum.shareit.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.practicum.shareit.ShareItApp;
+import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingRespDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.item.dto.CommentRespDto;
+import ru.practicum.shareit.item.dto.ItemRespDto;
+import ru.practicum.shareit.item.mapper.CommentMapper;
+import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.ItemRequestMapper;
+import ru.practicum.shareit.request.dto.ItemRequestRespDto;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Throughput of the entity to DTO mappers on the response hot paths. The entities are loaded once from an
+ * in-memory H2 database filled by the {@code datagen} profile with a small fixed dataset, then detached.
+ * Run with {@code mvn -Pbenchmark test-compile exec:exec -Djmh.args="MapperBenchmark -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MapperBenchmark {
+    @Param({"1", "10", "100"})
+    private int itemsPerRequest;
+
+    private Booking booking;
+    private Item item;
+    private BookingRespDto lastBooking;
+    private BookingRespDto nextBooking;
+    private List<CommentRespDto> comments;
+    private ItemRequest itemRequest;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(ShareItApp.class)
+                .web(WebApplicationType.NONE)
+                .profiles("datagen")
+                .run("--spring.datasource.url=jdbc:h2:mem:mapper-benchmark;DB_CLOSE_DELAY=-1",
+                        "--shareit.datagen.reference-date=2024-01-01",
+                        "--shareit.datagen.users=50",
+                        "--shareit.datagen.requests=20",
+                        "--shareit.datagen.items=500",
+                        "--shareit.datagen.bookings=2000",
+                        "--shareit.datagen.comments=300",
+                        "--logging.level.root=WARN",
+                        "--logging.level.org.springframework.transaction.interceptor=WARN",
+                        "--logging.level.org.springframework.orm.jpa.JpaTransactionManager=WARN")) {
+            EntityManager entityManager = context.getBean(EntityManagerFactory.class).createEntityManager();
+            try {
+                item = entityManager.createQuery("select i from Item as i where i.request is not null order by i.id",
+                                Item.class)
+                        .setMaxResults(1)
+                        .getSingleResult();
+                itemRequest = item.getRequest();
+                itemRequest.setItems(entityManager.createQuery("select i from Item as i order by i.id", Item.class)
+                        .setMaxResults(itemsPerRequest)
+                        .getResultList());
+                booking = entityManager.createQuery("select b from Booking as b order by b.id", Booking.class)
+                        .setMaxResults(1)
+                        .getSingleResult();
+                comments = entityManager.createQuery("select c from Comment as c order by c.created desc, c.id desc",
+                                Comment.class)
+                        .setMaxResults(ItemServiceImpl.EMBEDDED_COMMENTS)
+                        .getResultStream()
+                        .map(CommentMapper::toCommentRespDto)
+                        .collect(Collectors.toList());
+            } finally {
+                entityManager.close();
+            }
+        }
+        lastBooking = BookingMapper.toBookingRespDto(booking);
+        nextBooking = BookingMapper.toBookingRespDto(booking);
+    }
+
+    @Benchmark
+    public BookingRespDto bookingToBookingRespDto() {
+        return BookingMapper.toBookingRespDto(booking);
+    }
+
+    @Benchmark
+    public ItemRespDto itemToItemRespDto() {
+        return ItemMapper.toItemRespDto(item);
+    }
+
+    @Benchmark
+    public ItemRespDto itemWithBookingsToItemRespDto() {
+        return ItemMapper.toItemRespDto(item, lastBooking, comments, nextBooking);
+    }
+
+    @Benchmark
+    public ItemRequestRespDto itemRequestToItemRequestRespDto() {
+        return ItemRequestMapper.toItemRequestRespDto(itemRequest);
+    }
+}
@@ -1,16 +1,31 @@
 package ru.practicum.shareit.booking;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.booking.dto.BookingApprovalReqDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingReqDto;
 import ru.practicum.shareit.booking.dto.BookingRespDto;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
 import ru.practicum.shareit.booking.service.BookingService;
 
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 import static ru.practicum.shareit.item.ItemController.USER_HEADER;
@@ -22,7 +37,11 @@ import static ru.practicum.shareit.item.ItemController.USER_HEADER;
 @RequiredArgsConstructor
 @Validated
 public class BookingController {
+    public static final int MAX_BATCH_SIZE = 100;
+    public static final String NDJSON = "application/x-ndjson";
+
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
 
     @PostMapping
     public BookingRespDto add(@RequestHeader(USER_HEADER) Long userId,
@@ -31,6 +50,14 @@ public class BookingController {
         return bookingService.add(userId, bookingReqDto);
     }
 
+    @PostMapping("/batch")
+    public List<BookingBatchResultDto> addAll(@RequestHeader(USER_HEADER) Long userId,
+                                              @RequestBody @NotEmpty @Size(max = MAX_BATCH_SIZE)
+                                              List<@NotNull @Valid BookingReqDto> bookingReqDtos) {
+        log.info("POST \"/bookings/batch\", Entries:{}, Headers:(X-Sharer-User-Id)={}", bookingReqDtos.size(), userId);
+        return bookingService.addAll(userId, bookingReqDtos);
+    }
+
     @PatchMapping("/{bookingId}")
     public BookingRespDto update(@RequestHeader(USER_HEADER) Long userId,
                                  @PathVariable("bookingId") Long bookingId,
@@ -39,10 +66,22 @@ public class BookingController {
         return bookingService.update(userId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    public List<BookingRespDto> updateAll(@RequestHeader(USER_HEADER) Long userId,
+                                          @RequestBody @Valid BookingApprovalReqDto bookingApprovalReqDto) {
+        log.info("PATCH \"/bookings/batch\", Body:{}, Headers:(X-Sharer-User-Id)={}", bookingApprovalReqDto, userId);
+        return bookingService.updateAll(userId, bookingApprovalReqDto);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingRespDto findByUserId(@RequestHeader(USER_HEADER) Long userId,
-                                       @PathVariable("bookingId") Long bookingId) {
+                                       @PathVariable("bookingId") Long bookingId,
+                                       WebRequest request) {
         log.info("GET \"/bookings/{}\", Headers:(X-Sharer-User-Id)={}", bookingId, userId);
+        String eTag = bookingService.findETag(userId, bookingId);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         return bookingService.findByUserId(userId, bookingId);
     }
 
@@ -69,4 +108,72 @@ public class BookingController {
         log.info("GET \"/bookings/owner?state={}\", Headers:(X-Sharer-User-Id)={}", bookingState, ownerId);
         return bookingService.findAllByOwnerId(ownerId, bookingState, from, size);
     }
+
+    /**
+     * Writes every booking of the owner's items as one JSON object per line. Lines leave through the
+     * servlet buffer while the database cursor is still open, instead of being collected first.
+     */
+    @GetMapping("/owner/export")
+    public void exportAllByOwnerId(@RequestHeader(USER_HEADER) Long ownerId,
+                                   HttpServletResponse response) throws IOException {
+        log.info("GET \"/bookings/owner/export\", Headers:(X-Sharer-User-Id)={}", ownerId);
+        ObjectWriter writer = objectMapper.writerFor(BookingRespDto.class);
+        bookingService.exportAllByOwnerId(ownerId, booking -> {
+            try {
+                OutputStream outputStream = ndjsonStream(response);
+                outputStream.write(writer.writeValueAsBytes(booking));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        ndjsonStream(response);
+    }
+
+    @GetMapping("/stats")
+    public BookingStatsDto findStats(@RequestHeader(USER_HEADER) Long userId) {
+        log.info("GET \"/bookings/stats\", Headers:(X-Sharer-User-Id)={}", userId);
+        return bookingService.findStats(userId);
+    }
+
+    @GetMapping("/owner/stats")
+    public BookingStatsDto findStatsByOwnerId(@RequestHeader(USER_HEADER) Long ownerId) {
+        log.info("GET \"/bookings/owner/stats\", Headers:(X-Sharer-User-Id)={}", ownerId);
+        return bookingService.findStatsByOwnerId(ownerId);
+    }
+
+    @GetMapping(params = "cursor")
+    public BookingPageDto findAllByCursor(@RequestHeader(USER_HEADER) Long userId,
+                                          @RequestParam(value = "state", defaultValue = "ALL")
+                                          String bookingState,
+                                          @RequestParam(value = "cursor") String cursor,
+                                          @RequestParam(value = "size", defaultValue = "10")
+                                          @Min(1) Integer size) {
+        log.info("GET \"/bookings?state={}&cursor={}\", Headers:(X-Sharer-User-Id)={}", bookingState, cursor, userId);
+        return bookingService.findAllByCursor(userId, bookingState, cursor, size);
+    }
+
+    @GetMapping(value = "/owner", params = "cursor")
+    public BookingPageDto findAllByOwnerIdAndCursor(@RequestHeader(USER_HEADER) Long ownerId,
+                                                    @RequestParam(value = "state", defaultValue = "ALL")
+                                                    String bookingState,
+                                                    @RequestParam(value = "cursor") String cursor,
+                                                    @RequestParam(value = "size", defaultValue = "10")
+                                                    @Min(1) Integer size) {
+        log.info("GET \"/bookings/owner?state={}&cursor={}\", Headers:(X-Sharer-User-Id)={}",
+                bookingState, cursor, ownerId);
+        return bookingService.findAllByOwnerIdAndCursor(ownerId, bookingState, cursor, size);
+    }
+
+    /**
+     * Sets the content type with the first line rather than up front, so an error raised before it
+     * is still rendered as JSON by the exception handler.
+     */
+    private OutputStream ndjsonStream(HttpServletResponse response) throws IOException {
+        if (response.getContentType() == null) {
+            response.setContentType(NDJSON);
+            response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        }
+        return response.getOutputStream();
+    }
 }
@@ -2,22 +2,39 @@ package ru.practicum.shareit.booking;
 
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.booking.dto.BookingItemDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingReqDto;
 import ru.practicum.shareit.booking.dto.BookingRespDto;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.item.dto.ItemRespDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
+import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserMapper;
 
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
 @UtilityClass
 public class BookingMapper {
+    /**
+     * Cuts the dates to the microseconds the database keeps, so a booking read back equals the one
+     * written, down to the keys of the interval index.
+     */
     public Booking toBooking(User user, Item item, BookingReqDto bookingReqDto) {
         return new Booking(
                 item,
-                bookingReqDto.getStart(),
-                bookingReqDto.getEnd(),
+                bookingReqDto.getStart().truncatedTo(ChronoUnit.MICROS),
+                bookingReqDto.getEnd().truncatedTo(ChronoUnit.MICROS),
                 user,
                 BookingStatus.WAITING);
     }
@@ -32,9 +49,60 @@ public class BookingMapper {
                 booking.getStatus());
     }
 
+    public BookingRespDto toBookingRespDto(ItemBookingView view, ItemRespDto item) {
+        if (view == null) {
+            return null;
+        }
+        return new BookingRespDto(
+                view.getId(),
+                item,
+                view.getStart(),
+                view.getEnd(),
+                new UserDto(view.getBookerId(), view.getBookerName(), view.getBookerEmail()),
+                BookingStatus.valueOf(view.getStatus()));
+    }
+
+    public BookingRespDto toBookingRespDto(BookingView view) {
+        ItemRespDto item = new ItemRespDto(
+                view.getItemId(),
+                view.getItemName(),
+                view.getItemDescription(),
+                view.getItemAvailable());
+        item.setRequestId(view.getItemRequestId());
+        return new BookingRespDto(
+                view.getId(),
+                item,
+                view.getStart(),
+                view.getEnd(),
+                new UserDto(view.getBookerId(), view.getBookerName(), view.getBookerEmail()),
+                BookingStatus.valueOf(view.getStatus()));
+    }
+
     public static BookingItemDto toBookingItemDto(Booking booking) {
         return new BookingItemDto(
                 booking.getId(),
                 booking.getBooker().getId());
     }
+
+    public BookingStatsDto toBookingStatsDto(Map<BookingState, Long> countByState) {
+        return new BookingStatsDto(
+                countByState.get(BookingState.ALL),
+                countByState.get(BookingState.CURRENT),
+                countByState.get(BookingState.PAST),
+                countByState.get(BookingState.FUTURE),
+                countByState.get(BookingState.WAITING),
+                countByState.get(BookingState.REJECTED));
+    }
+
+    public BookingPageDto toBookingPageDto(List<BookingView> bookings, int size) {
+        String nextCursor = null;
+        if (bookings.size() == size) {
+            nextCursor = BookingCursor.of(bookings.get(bookings.size() - 1)).encode();
+        }
+        return new BookingPageDto(
+                bookings.stream()
+                        .map(BookingMapper::toBookingRespDto)
+                        .collect(Collectors.toList()),
+                nextCursor);
+    }
 }
\ No newline at end of file
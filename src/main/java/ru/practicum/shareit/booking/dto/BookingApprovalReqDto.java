@@ -0,0 +1,25 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.util.Set;
+
+import static ru.practicum.shareit.booking.BookingController.MAX_BATCH_SIZE;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookingApprovalReqDto {
+    @NotEmpty
+    @Size(max = MAX_BATCH_SIZE)
+    private Set<@NotNull Long> bookingIds;
+    @NotNull
+    private Boolean approved;
+}
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of one entry of a batch booking request, at the same position as the entry.
+ * {@code booking} is set for created entries and {@code error} for the others.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class BookingBatchResultDto {
+    private Status status;
+    private BookingRespDto booking;
+    private String error;
+
+    public enum Status {
+        CREATED,
+        REJECTED,
+        NOT_FOUND
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Dates of a booking without its item and booker.
+ */
+public interface BookingInterval {
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+}
@@ -0,0 +1,19 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * Change counters of a booking and of its item, with the two users allowed to see the booking and the
+ * booker's details shown with it, which have no counter of their own.
+ */
+public interface BookingVersion {
+    Long getBookerId();
+
+    Long getOwnerId();
+
+    Long getVersion();
+
+    Long getItemVersion();
+
+    String getBookerName();
+
+    String getBookerEmail();
+}
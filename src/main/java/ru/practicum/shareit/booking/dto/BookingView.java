@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Value;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat row of a booking listing: the booking with the item and booker columns that
+ * {@link BookingRespDto} shows. Built by the {@code BookingView} result set mapping, so
+ * reading it never puts entities into the persistence context.
+ */
+@Value
+public class BookingView {
+    Long id;
+    LocalDateTime start;
+    LocalDateTime end;
+    String status;
+    Long itemId;
+    String itemName;
+    String itemDescription;
+    Boolean itemAvailable;
+    Long itemRequestId;
+    Long bookerId;
+    String bookerName;
+    String bookerEmail;
+}
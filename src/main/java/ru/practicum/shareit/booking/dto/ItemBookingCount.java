@@ -0,0 +1,10 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * Number of bookings ever made for an item.
+ */
+public interface ItemBookingCount {
+    Long getItemId();
+
+    Long getBookings();
+}
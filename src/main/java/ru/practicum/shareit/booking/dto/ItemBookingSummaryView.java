@@ -0,0 +1,8 @@
+package ru.practicum.shareit.booking.dto;
+
+/**
+ * Last or next booking of an item as recorded in its booking summary.
+ */
+public interface ItemBookingSummaryView extends ItemBookingView {
+    Boolean getNext();
+}
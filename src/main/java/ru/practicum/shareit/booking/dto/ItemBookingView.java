@@ -0,0 +1,24 @@
+package ru.practicum.shareit.booking.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Flat row of an approved booking of an item, joined with its booker.
+ */
+public interface ItemBookingView {
+    Long getId();
+
+    Long getItemId();
+
+    LocalDateTime getStart();
+
+    LocalDateTime getEnd();
+
+    String getStatus();
+
+    Long getBookerId();
+
+    String getBookerName();
+
+    String getBookerEmail();
+}
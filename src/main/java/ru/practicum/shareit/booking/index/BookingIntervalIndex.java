@@ -0,0 +1,119 @@
+package ru.practicum.shareit.booking.index;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * In-memory view of the WAITING and APPROVED bookings of the recently checked items, used to
+ * reject double bookings without querying the bookings table on each write.
+ * <p>
+ * A tree is loaded from the database the first time its item is checked and is kept current
+ * by {@link #add} and {@link #remove}; intervals that have ended are dropped as the tree is used.
+ * Trees are bounded in number and expire when their item is not checked for a while. If the
+ * surrounding transaction rolls back, the tree of the affected item is dropped and reloaded on
+ * the next check.
+ * <p>
+ * Callers hold the item lock, so a tree is never loaded while a booking of its item is written.
+ */
+@Component
+public class BookingIntervalIndex {
+    public static final List<BookingStatus> BLOCKING_STATUSES = List.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Cache<Long, IntervalTree> trees;
+
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.booking-index.maximum-size:10000}") long maximumSize,
+                                @Value("${shareit.booking-index.expire-after-access:10m}") Duration expireAfterAccess) {
+        this.bookingRepository = bookingRepository;
+        this.trees = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterAccess(expireAfterAccess)
+                .build();
+    }
+
+    public boolean overlaps(Long itemId, LocalDateTime start, LocalDateTime end) {
+        IntervalTree tree = treeOf(itemId);
+        synchronized (tree) {
+            tree.removeEndedBy(LocalDateTime.now());
+            return tree.overlaps(start, end, Long.MIN_VALUE);
+        }
+    }
+
+    public void add(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        IntervalTree tree = treeOf(itemId);
+        synchronized (tree) {
+            tree.removeEndedBy(LocalDateTime.now());
+            if (!tree.contains(booking.getId(), booking.getStart())) {
+                tree.insert(booking.getId(), booking.getStart(), booking.getEnd());
+            }
+        }
+        evictOnRollback(itemId);
+    }
+
+    public void remove(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        IntervalTree tree = trees.getIfPresent(itemId);
+        if (tree != null) {
+            synchronized (tree) {
+                tree.remove(booking.getId(), booking.getStart());
+            }
+        }
+        evictOnRollback(itemId);
+    }
+
+    public void evict(Long itemId) {
+        trees.invalidate(itemId);
+    }
+
+    private IntervalTree treeOf(Long itemId) {
+        IntervalTree tree = trees.getIfPresent(itemId);
+        if (tree != null) {
+            return tree;
+        }
+        // loaded outside the cache, so a slow query does not block lookups of other items
+        IntervalTree loaded = load(itemId);
+        tree = trees.asMap().putIfAbsent(itemId, loaded);
+        return tree != null ? tree : loaded;
+    }
+
+    private IntervalTree load(Long itemId) {
+        IntervalTree tree = new IntervalTree();
+        bookingRepository.findAllByItemIdAndStatusInAndEndAfter(itemId, BLOCKING_STATUSES, LocalDateTime.now())
+                .forEach(booking -> tree.insert(booking.getId(), booking.getStart(), booking.getEnd()));
+        return tree;
+    }
+
+    private void evictOnRollback(Long itemId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public int getOrder() {
+                // before the item lock of the transaction is released
+                return Ordered.HIGHEST_PRECEDENCE;
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    evict(itemId);
+                }
+            }
+        });
+    }
+}
@@ -0,0 +1,214 @@
+package ru.practicum.shareit.booking.index;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * AVL tree of half-open {@code [start, end)} intervals ordered by {@code (start, id)}.
+ * Every node also keeps the latest end of its subtree, so an overlap query can skip
+ * any branch that finishes before the queried interval begins.
+ * <p>
+ * Not thread-safe: callers guard each tree themselves.
+ */
+public class IntervalTree {
+    private Node root;
+    private int size;
+
+    public void insert(long id, LocalDateTime start, LocalDateTime end) {
+        root = insert(root, new Node(id, start, end));
+        size++;
+    }
+
+    public boolean remove(long id, LocalDateTime start) {
+        if (!contains(id, start)) {
+            return false;
+        }
+        root = remove(root, id, start);
+        size--;
+        return true;
+    }
+
+    public boolean contains(long id, LocalDateTime start) {
+        Node node = root;
+        while (node != null) {
+            int cmp = compare(start, id, node);
+            if (cmp == 0) {
+                return true;
+            }
+            node = cmp < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    /**
+     * Checks whether any stored interval other than {@code excludedId} intersects {@code [start, end)}.
+     */
+    public boolean overlaps(LocalDateTime start, LocalDateTime end, long excludedId) {
+        return overlaps(root, start, end, excludedId);
+    }
+
+    /**
+     * Removes every interval that ends at or before {@code time}. Only intervals starting before
+     * {@code time} can have ended, so the walk never descends past a later start.
+     */
+    public int removeEndedBy(LocalDateTime time) {
+        List<Node> ended = new ArrayList<>();
+        collectEnded(root, time, ended);
+        for (Node node : ended) {
+            root = remove(root, node.id, node.start);
+        }
+        size -= ended.size();
+        return ended.size();
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void collectEnded(Node node, LocalDateTime time, List<Node> ended) {
+        if (node == null) {
+            return;
+        }
+        collectEnded(node.left, time, ended);
+        if (node.start.isBefore(time)) {
+            if (!node.end.isAfter(time)) {
+                ended.add(node);
+            }
+            collectEnded(node.right, time, ended);
+        }
+    }
+
+    private boolean overlaps(Node node, LocalDateTime start, LocalDateTime end, long excludedId) {
+        if (node == null || !node.maxEnd.isAfter(start)) {
+            return false;
+        }
+        if (overlaps(node.left, start, end, excludedId)) {
+            return true;
+        }
+        if (!node.start.isBefore(end)) {
+            return false;
+        }
+        if (node.end.isAfter(start) && node.id != excludedId) {
+            return true;
+        }
+        return overlaps(node.right, start, end, excludedId);
+    }
+
+    private Node insert(Node node, Node added) {
+        if (node == null) {
+            return added;
+        }
+        if (compare(added.start, added.id, node) < 0) {
+            node.left = insert(node.left, added);
+        } else {
+            node.right = insert(node.right, added);
+        }
+        return balance(node);
+    }
+
+    private Node remove(Node node, long id, LocalDateTime start) {
+        int cmp = compare(start, id, node);
+        if (cmp < 0) {
+            node.left = remove(node.left, id, start);
+        } else if (cmp > 0) {
+            node.right = remove(node.right, id, start);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeMin(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private Node removeMin(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeMin(node.left);
+        return balance(node);
+    }
+
+    private Node balance(Node node) {
+        update(node);
+        int balanceFactor = height(node.left) - height(node.right);
+        if (balanceFactor > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balanceFactor < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private void update(Node node) {
+        node.height = 1 + Math.max(height(node.left), height(node.right));
+        node.maxEnd = node.end;
+        if (node.left != null && node.left.maxEnd.isAfter(node.maxEnd)) {
+            node.maxEnd = node.left.maxEnd;
+        }
+        if (node.right != null && node.right.maxEnd.isAfter(node.maxEnd)) {
+            node.maxEnd = node.right.maxEnd;
+        }
+    }
+
+    private int height(Node node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private int compare(LocalDateTime start, long id, Node node) {
+        int cmp = start.compareTo(node.start);
+        return cmp != 0 ? cmp : Long.compare(id, node.id);
+    }
+
+    private static class Node {
+        private final long id;
+        private final LocalDateTime start;
+        private final LocalDateTime end;
+        private LocalDateTime maxEnd;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        Node(long id, LocalDateTime start, LocalDateTime end) {
+            this.id = id;
+            this.start = start;
+            this.end = end;
+            this.maxEnd = end;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package ru.practicum.shareit.booking.lock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Serializes the booking writes of one item: creating a booking and changing its status check the
+ * {@link ru.practicum.shareit.booking.index.BookingIntervalIndex} and then act on it, which is only safe
+ * if no other writer of the same item runs in between.
+ * <p>
+ * Item ids are hashed onto a fixed number of stripes, so memory does not grow with the number of items
+ * and unrelated items rarely wait for each other. A lock is held until the surrounding transaction
+ * completes, so the next writer sees the committed rows and the index as they are after the commit
+ * or rollback. Several stripes are always taken in ascending order, which rules out deadlocks between
+ * writers of overlapping item sets.
+ */
+@Component
+public class ItemLocks {
+    private final ReentrantLock[] stripes;
+
+    public ItemLocks(@Value("${shareit.item-locks.stripes:256}") int stripes) {
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    public void lockUntilCompletion(Long itemId) {
+        lockUntilCompletion(List.of(itemId));
+    }
+
+    public void lockUntilCompletion(Collection<Long> itemIds) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Item locks can only be taken inside a transaction");
+        }
+        SortedSet<Integer> indexes = new TreeSet<>();
+        itemIds.forEach(itemId -> indexes.add(stripeOf(itemId)));
+        for (Integer index : indexes) {
+            ReentrantLock lock = stripes[index];
+            lock.lock();
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    lock.unlock();
+                }
+            });
+        }
+    }
+
+    private int stripeOf(Long itemId) {
+        return Math.floorMod(Long.hashCode(itemId) * 0x9E3779B9, stripes.length);
+    }
+}
@@ -1,6 +1,7 @@
 package ru.practicum.shareit.booking.model;
 
 import lombok.*;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 
@@ -15,9 +16,25 @@ import java.time.LocalDateTime;
 @Entity
 @Table(name = "bookings", schema = "public")
 @Builder
+@SqlResultSetMapping(name = "BookingView", classes = @ConstructorResult(
+        targetClass = BookingView.class,
+        columns = {
+                @ColumnResult(name = "id", type = Long.class),
+                @ColumnResult(name = "start_date", type = LocalDateTime.class),
+                @ColumnResult(name = "end_date", type = LocalDateTime.class),
+                @ColumnResult(name = "status", type = String.class),
+                @ColumnResult(name = "item_id", type = Long.class),
+                @ColumnResult(name = "item_name", type = String.class),
+                @ColumnResult(name = "item_description", type = String.class),
+                @ColumnResult(name = "item_available", type = Boolean.class),
+                @ColumnResult(name = "item_request_id", type = Long.class),
+                @ColumnResult(name = "booker_id", type = Long.class),
+                @ColumnResult(name = "booker_name", type = String.class),
+                @ColumnResult(name = "booker_email", type = String.class)}))
 public class Booking {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "bookings_seq")
+    @SequenceGenerator(name = "bookings_seq", sequenceName = "bookings_seq", allocationSize = 50)
     private Long id;
     @ManyToOne
     @JoinColumn(name = "item_id", nullable = false)
@@ -34,6 +51,9 @@ public class Booking {
     @Enumerated(EnumType.STRING)
     @Column(name = "status")
     private BookingStatus status;
+    @Version
+    @Column(name = "version", nullable = false)
+    private long version;
 
     public Booking(Item item, LocalDateTime start, LocalDateTime end, User booker, BookingStatus status) {
         this.item = item;
@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Read model of the approved bookings of an item: the last one that has started, the next one to start,
+ * how many there are and when the last one started. It reflects the bookings as of its last refresh, so
+ * once {@code nextStart} has passed the next booking is really the last one until the row is refreshed.
+ */
+@Getter
+@Setter
+@ToString
+@AllArgsConstructor
+@NoArgsConstructor
+@Entity
+@Table(name = "item_booking_summary")
+@Builder
+public class ItemBookingSummary {
+    @Id
+    @Column(name = "item_id")
+    private Long itemId;
+    @Column(name = "last_booking_id")
+    private Long lastBookingId;
+    @Column(name = "next_booking_id")
+    private Long nextBookingId;
+    @Column(name = "approved_count", nullable = false)
+    private long approvedCount;
+    @Column(name = "last_booked_at")
+    private LocalDateTime lastBookedAt;
+    @Column(name = "next_start_date")
+    private LocalDateTime nextStart;
+}
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.booking.repository;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Booking listing for one user seen either as a booker or as an item owner, filtered by
+ * {@link BookingState} and ordered by {@code (start_date DESC, id DESC)}.
+ * <p>
+ * The booker side is filtered on {@code bookings} alone and is served by {@code idx_bookings_booker_start};
+ * only the owner side uses {@code items} to filter by {@code owner_id}. Both sides then join the item and
+ * the booker of each row by primary key for the view columns. A page is selected either by
+ * {@code offset} or, when a {@link BookingCursor} is set, by seeking past the cursor.
+ */
+@Getter
+@Builder
+@ToString
+public class BookingQuery {
+    private static final String ITEMS_JOIN = "JOIN items AS i ON i.id = b.item_id ";
+    private static final String BOOKER_JOIN = "JOIN users AS u ON u.id = b.booker_id ";
+    private static final String VIEW_SELECT = "SELECT b.id, b.start_date, b.end_date, b.status, "
+            + "i.id AS item_id, i.name AS item_name, i.description AS item_description, "
+            + "i.available AS item_available, i.request_id AS item_request_id, "
+            + "u.id AS booker_id, u.name AS booker_name, u.email AS booker_email "
+            + "FROM bookings AS b ";
+
+    private final BookingRole role;
+    private final Long userId;
+    private final BookingState state;
+    private final LocalDateTime currentTime;
+    private final BookingCursor cursor;
+    private final int offset;
+    private final int size;
+
+    /**
+     * The listing flattened into the columns of a {@code BookingView}:
+     * the booking joined with its item and booker by primary key.
+     */
+    public String toViewSql() {
+        return toSql(VIEW_SELECT, ITEMS_JOIN + BOOKER_JOIN);
+    }
+
+    /**
+     * Number of the user's bookings in every {@link BookingState}, as one row with a column per state in
+     * declaration order. All counts come from one scan of the rows the ALL listing reads: each state is a
+     * conditional sum over the same predicate its listing filters with.
+     */
+    public String toStatsSql() {
+        StringJoiner counts = new StringJoiner(", ", "SELECT ", " FROM bookings AS b ");
+        for (BookingState countedState : BookingState.values()) {
+            String condition = stateCondition(countedState);
+            counts.add(condition.isEmpty() ? "COUNT(*)" : "COALESCE(SUM(CASE WHEN " + condition + " THEN 1 ELSE 0 END), 0)");
+        }
+        return counts + (role == BookingRole.OWNER ? ITEMS_JOIN : "") + userPredicate();
+    }
+
+    private String toSql(String select, String joins) {
+        StringBuilder sql = new StringBuilder(select).append(joins).append(userPredicate());
+        sql.append(statePredicate());
+        if (cursor != null) {
+            sql.append("AND (b.start_date, b.id) < (:cursorStart, :cursorId) ");
+        }
+        return sql.append("ORDER BY b.start_date DESC, b.id DESC").toString();
+    }
+
+    public Map<String, Object> getParameters() {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("userId", userId);
+        if (usesCurrentTime()) {
+            parameters.put("currentTime", currentTime);
+        }
+        if (cursor != null) {
+            parameters.put("cursorStart", cursor.getStart());
+            parameters.put("cursorId", cursor.getId());
+        }
+        return parameters;
+    }
+
+    public Map<String, Object> getStatsParameters() {
+        return Map.of("userId", userId, "currentTime", currentTime);
+    }
+
+    private String userPredicate() {
+        return role == BookingRole.OWNER ? "WHERE i.owner_id = :userId " : "WHERE b.booker_id = :userId ";
+    }
+
+    private boolean usesCurrentTime() {
+        return state != BookingState.ALL && state != BookingState.REJECTED;
+    }
+
+    private String statePredicate() {
+        String condition = stateCondition(state);
+        return condition.isEmpty() ? "" : "AND " + condition + " ";
+    }
+
+    private static String stateCondition(BookingState state) {
+        switch (state) {
+            case ALL:
+                return "";
+            case CURRENT:
+                return ":currentTime BETWEEN b.start_date AND b.end_date";
+            case PAST:
+                return "b.end_date < :currentTime";
+            case FUTURE:
+                return "b.start_date > :currentTime";
+            case WAITING:
+                return "b.status = 'WAITING' AND b.start_date > :currentTime";
+            case REJECTED:
+                return "b.status = 'REJECTED'";
+            default:
+                throw new IllegalArgumentException("Unknown state: " + state);
+        }
+    }
+}
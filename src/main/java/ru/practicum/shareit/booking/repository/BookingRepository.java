@@ -1,104 +1,28 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingVersion;
+import ru.practicum.shareit.booking.dto.ItemBookingCount;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
-import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.QueryHint;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE b.booker_id = ?1 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllBookingsByBookerId(Long userId, Pageable pageable);
-
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE b.booker_id = ?1 " +
-            "AND ?2 BETWEEN b.start_date AND b.end_date " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllCurrentBookingsByBookerId(Long bookerId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE b.booker_id = ?1 " +
-            "AND b.end_date < ?2 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllPastBookingsByBookerId(Long bookerId, LocalDateTime currentTime, Pageable pageable);
-
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE b.booker_id = ?1 " +
-            "AND b.start_date > ?2 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllFutureBookingsByBookerId(Long bookerId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE b.booker_id = ?1 " +
-            "AND b.status = 'WAITING' " +
-            "AND b.start_date > ?2 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllWaitingBookingsByBookerId(Long bookerId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE b.booker_id = ?1 " +
-            "AND b.status = 'REJECTED' " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllRejectedBookingsByBookerId(Long bookerId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id  " +
-            "WHERE i.owner_id = ?1 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllBookingsByOwnerId(Long ownerId, Pageable pageable);
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 " +
-            "AND ?2 BETWEEN b.start_date AND b.end_date " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllCurrentBookingsByOwnerId(Long ownerId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 " +
-            "AND b.end_date < ?2 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllPastBookingsByOwnerId(Long ownerId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 " +
-            "AND b.start_date > ?2 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllFutureBookingsByOwnerId(Long ownerId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 " +
-            "AND b.status = 'WAITING' " +
-            "AND b.start_date > ?2 " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllWaitingBookingsByOwnerId(Long ownerId, LocalDateTime currentTime, Pageable pageable);
-
-    @Query(value = "SELECT b.* FROM bookings as b " +
-            "JOIN items as i ON i.id = b.item_id " +
-            "WHERE i.owner_id = ?1 " +
-            "AND b.status = 'REJECTED' " +
-            "ORDER BY b.start_date DESC", nativeQuery = true)
-    List<Booking> findAllRejectedBookingsByOwnerId(Long ownerId, Pageable pageable);
 
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingRepositoryCustom {
     @Query(value = "SELECT * FROM bookings as b " +
             "JOIN items as i ON i.id = b.item_id " +
             "WHERE b.item_id = ?1 " +
@@ -123,8 +47,66 @@ public interface BookingRepository extends JpaRepository<Booking, Long> {
             "AND b.end_date < ?3 ", nativeQuery = true)
     List<Booking> findAllBookingsByUserAndItemId(Long userId, Long itemId, LocalDateTime now);
 
-    List<Booking> findAllByItemInAndStatusOrderByStartAsc(List<Item> items, BookingStatus status);
-
-    List<Booking> findAllByItemAndStatusOrderByStartAsc(Item item, BookingStatus bookingStatus);
-
-}
\ No newline at end of file
+    /**
+     * Returns at most two approved bookings per item: the last one that has started by {@code currentTime}
+     * and the first one that starts after it. Each item's bookings are ranked separately on both sides
+     * of {@code currentTime}, so only the winning rows leave the database.
+     */
+    @Query(value = "SELECT x.id AS \"id\", x.item_id AS \"itemId\", x.start_date AS \"start\", " +
+            "x.end_date AS \"end\", x.status AS \"status\", u.id AS \"bookerId\", " +
+            "u.name AS \"bookerName\", u.email AS \"bookerEmail\" " +
+            "FROM (SELECT b.*, ROW_NUMBER() OVER (" +
+            "PARTITION BY b.item_id, b.start_date > :currentTime " +
+            "ORDER BY CASE WHEN b.start_date > :currentTime THEN b.start_date END ASC, " +
+            "b.start_date DESC) AS rn " +
+            "FROM bookings AS b " +
+            "WHERE b.item_id IN (:itemIds) " +
+            "AND b.status = 'APPROVED') AS x " +
+            "JOIN users AS u ON u.id = x.booker_id " +
+            "WHERE x.rn = 1", nativeQuery = true)
+    List<ItemBookingView> findLastAndNextBookings(@Param("itemIds") Collection<Long> itemIds,
+                                                  @Param("currentTime") LocalDateTime currentTime);
+
+    @Query("select b from Booking as b where b.item.id = :itemId and b.status in :statuses and b.end > :time")
+    List<Booking> findAllByItemIdAndStatusInAndEndAfter(@Param("itemId") Long itemId,
+                                                        @Param("statuses") Collection<BookingStatus> statuses,
+                                                        @Param("time") LocalDateTime time);
+
+    /**
+     * Streams the dates of the item's bookings in any of {@code statuses} that intersect {@code [from, to)},
+     * ordered by start, from one (item_id, status, start_date) index range per status. Rows are fetched from
+     * the cursor in chunks, so the caller only holds the current one; the stream must be consumed inside a
+     * transaction and closed.
+     */
+    @QueryHints(@QueryHint(name = HINT_FETCH_SIZE, value = "256"))
+    @Query("select b.start as start, b.end as end from Booking as b " +
+            "where b.item.id = :itemId and b.status in :statuses and b.start < :to and b.end > :from " +
+            "order by b.start asc")
+    Stream<BookingInterval> streamIntervalsByItemIdAndStatusIn(@Param("itemId") Long itemId,
+                                                               @Param("statuses") Collection<BookingStatus> statuses,
+                                                               @Param("from") LocalDateTime from,
+                                                               @Param("to") LocalDateTime to);
+
+    @Query("select b.item.id as itemId, count(b) as bookings from Booking as b group by b.item.id")
+    List<ItemBookingCount> countBookingsByItem();
+
+    @Query("select b from Booking as b join fetch b.booker join fetch b.item as i join fetch i.owner " +
+            "left join fetch i.request as r left join fetch r.requestor where b.id in :ids")
+    List<Booking> findAllWithItemByIdIn(@Param("ids") Collection<Long> ids);
+
+    /**
+     * Moves the given bookings from {@code from} to {@code to} with one statement and returns the number
+     * of rows changed, which is lower than the number of ids if some booking left {@code from} meanwhile.
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking as b set b.status = :to, b.version = b.version + 1 " +
+            "where b.id in :ids and b.status = :from")
+    int updateStatus(@Param("ids") Collection<Long> ids,
+                     @Param("from") BookingStatus from,
+                     @Param("to") BookingStatus to);
+
+    @Query("select u.id as bookerId, i.owner.id as ownerId, b.version as version, i.version as itemVersion, " +
+            "u.name as bookerName, u.email as bookerEmail " +
+            "from Booking as b join b.item as i join b.booker as u where b.id = :bookingId")
+    Optional<BookingVersion> findVersionById(@Param("bookingId") Long bookingId);
+}
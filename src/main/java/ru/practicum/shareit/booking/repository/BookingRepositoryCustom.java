@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+public interface BookingRepositoryCustom {
+    List<BookingView> findViewsByQuery(BookingQuery bookingQuery);
+
+    /**
+     * Streams the whole listing, ignoring offset and size, through a forward-only cursor that fetches
+     * {@code fetchSize} rows at a time. The stream must be consumed inside a transaction and closed.
+     */
+    Stream<BookingView> streamViewsByQuery(BookingQuery bookingQuery, int fetchSize);
+
+    Map<BookingState, Long> countByState(BookingQuery bookingQuery);
+}
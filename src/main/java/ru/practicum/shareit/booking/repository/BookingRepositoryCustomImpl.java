@@ -0,0 +1,54 @@
+package ru.practicum.shareit.booking.repository;
+
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.model.BookingState;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.Query;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+
+public class BookingRepositoryCustomImpl implements BookingRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<BookingView> findViewsByQuery(BookingQuery bookingQuery) {
+        return createQuery(entityManager.createNativeQuery(bookingQuery.toViewSql(), "BookingView"), bookingQuery)
+                .getResultList();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Stream<BookingView> streamViewsByQuery(BookingQuery bookingQuery, int fetchSize) {
+        Query query = entityManager.createNativeQuery(bookingQuery.toViewSql(), "BookingView")
+                .setHint(HINT_FETCH_SIZE, fetchSize);
+        bookingQuery.getParameters().forEach(query::setParameter);
+        return query.getResultStream();
+    }
+
+    @Override
+    public Map<BookingState, Long> countByState(BookingQuery bookingQuery) {
+        Query query = entityManager.createNativeQuery(bookingQuery.toStatsSql());
+        bookingQuery.getStatsParameters().forEach(query::setParameter);
+        Object[] counts = (Object[]) query.getSingleResult();
+        Map<BookingState, Long> countByState = new EnumMap<>(BookingState.class);
+        for (BookingState state : BookingState.values()) {
+            countByState.put(state, ((Number) counts[state.ordinal()]).longValue());
+        }
+        return countByState;
+    }
+
+    private Query createQuery(Query query, BookingQuery bookingQuery) {
+        query.setFirstResult(bookingQuery.getOffset())
+                .setMaxResults(bookingQuery.getSize());
+        bookingQuery.getParameters().forEach(query::setParameter);
+        return query;
+    }
+}
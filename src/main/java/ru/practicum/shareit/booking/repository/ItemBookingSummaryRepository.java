@@ -0,0 +1,76 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.booking.dto.ItemBookingSummaryView;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+public interface ItemBookingSummaryRepository extends JpaRepository<ItemBookingSummary, Long> {
+    /**
+     * Values of the summary of item {@code s.item_id} as of {@code :currentTime}, in column order after
+     * {@code item_id}. Each is read along the (item_id, status, start_date) index.
+     */
+    String SUMMARY_VALUES = "(SELECT b.id FROM bookings AS b " +
+            "WHERE b.item_id = s.item_id AND b.status = 'APPROVED' AND b.start_date <= :currentTime " +
+            "ORDER BY b.start_date DESC, b.id DESC LIMIT 1), " +
+            "(SELECT b.id FROM bookings AS b " +
+            "WHERE b.item_id = s.item_id AND b.status = 'APPROVED' AND b.start_date > :currentTime " +
+            "ORDER BY b.start_date, b.id LIMIT 1), " +
+            "(SELECT COUNT(*) FROM bookings AS b WHERE b.item_id = s.item_id AND b.status = 'APPROVED'), " +
+            "(SELECT MAX(b.start_date) FROM bookings AS b " +
+            "WHERE b.item_id = s.item_id AND b.status = 'APPROVED' AND b.start_date <= :currentTime), " +
+            "(SELECT MIN(b.start_date) FROM bookings AS b " +
+            "WHERE b.item_id = s.item_id AND b.status = 'APPROVED' AND b.start_date > :currentTime)";
+
+    /**
+     * Recomputes the summaries of the given items from their approved bookings as of {@code currentTime},
+     * creating the missing ones. Callers hold the item locks, so no other refresh can insert the same rows
+     * between the update and the insert.
+     */
+    default int refresh(Collection<Long> itemIds, LocalDateTime currentTime) {
+        return updateAll(itemIds, currentTime) + insertMissing(itemIds, currentTime);
+    }
+
+    @Modifying
+    @Query(value = "UPDATE item_booking_summary AS s SET (last_booking_id, next_booking_id, approved_count, " +
+            "last_booked_at, next_start_date) = (" + SUMMARY_VALUES + ") " +
+            "WHERE s.item_id IN (:itemIds)", nativeQuery = true)
+    int updateAll(@Param("itemIds") Collection<Long> itemIds, @Param("currentTime") LocalDateTime currentTime);
+
+    @Modifying
+    @Query(value = "INSERT INTO item_booking_summary (item_id, last_booking_id, next_booking_id, approved_count, " +
+            "last_booked_at, next_start_date) " +
+            "SELECT s.item_id, " + SUMMARY_VALUES + " " +
+            "FROM (SELECT i.id AS item_id FROM items AS i WHERE i.id IN (:itemIds) AND NOT EXISTS " +
+            "(SELECT 1 FROM item_booking_summary AS e WHERE e.item_id = i.id)) AS s", nativeQuery = true)
+    int insertMissing(@Param("itemIds") Collection<Long> itemIds, @Param("currentTime") LocalDateTime currentTime);
+
+    @Query("select s.itemId from ItemBookingSummary as s where s.nextStart <= :currentTime order by s.nextStart")
+    List<Long> findItemIdsByNextStartBefore(@Param("currentTime") LocalDateTime currentTime, Pageable pageable);
+
+    /**
+     * Returns the last and next bookings recorded in the summaries of the given items, joined with their
+     * bookers, each flagged by whether it is the next one. Items without approved bookings have no rows.
+     */
+    @Query(value = "SELECT b.id AS \"id\", b.item_id AS \"itemId\", b.start_date AS \"start\", " +
+            "b.end_date AS \"end\", b.status AS \"status\", u.id AS \"bookerId\", " +
+            "u.name AS \"bookerName\", u.email AS \"bookerEmail\", FALSE AS \"next\" " +
+            "FROM item_booking_summary AS s " +
+            "JOIN bookings AS b ON b.id = s.last_booking_id " +
+            "JOIN users AS u ON u.id = b.booker_id " +
+            "WHERE s.item_id IN (:itemIds) " +
+            "UNION ALL " +
+            "SELECT b.id, b.item_id, b.start_date, b.end_date, b.status, u.id, u.name, u.email, TRUE " +
+            "FROM item_booking_summary AS s " +
+            "JOIN bookings AS b ON b.id = s.next_booking_id " +
+            "JOIN users AS u ON u.id = b.booker_id " +
+            "WHERE s.item_id IN (:itemIds)", nativeQuery = true)
+    List<ItemBookingSummaryView> findBookingsByItemIdIn(@Param("itemIds") Collection<Long> itemIds);
+}
@@ -1,18 +1,39 @@
 package ru.practicum.shareit.booking.service;
 
+import ru.practicum.shareit.booking.dto.BookingApprovalReqDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingReqDto;
 import ru.practicum.shareit.booking.dto.BookingRespDto;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
     BookingRespDto add(Long userId, BookingReqDto bookingReqDto);
 
+    List<BookingBatchResultDto> addAll(Long userId, List<BookingReqDto> bookingReqDtos);
+
     BookingRespDto update(Long userId, Long bookingId, Boolean approved);
 
+    List<BookingRespDto> updateAll(Long userId, BookingApprovalReqDto bookingApprovalReqDto);
+
     BookingRespDto findByUserId(Long userId, Long bookingId);
 
+    String findETag(Long userId, Long bookingId);
+
     List<BookingRespDto> findAll(Long userId, String state, Integer from, Integer size);
 
     List<BookingRespDto> findAllByOwnerId(Long ownerId, String state, Integer from, Integer size);
+
+    BookingPageDto findAllByCursor(Long bookerId, String state, String cursor, Integer size);
+
+    BookingPageDto findAllByOwnerIdAndCursor(Long ownerId, String state, String cursor, Integer size);
+
+    void exportAllByOwnerId(Long ownerId, Consumer<BookingRespDto> consumer);
+
+    BookingStatsDto findStats(Long bookerId);
+
+    BookingStatsDto findStatsByOwnerId(Long ownerId);
 }
@@ -1,36 +1,62 @@
 package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingApprovalReqDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingReqDto;
 import ru.practicum.shareit.booking.dto.BookingRespDto;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
+import ru.practicum.shareit.booking.dto.BookingVersion;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.lock.ItemLocks;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingRole;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingQuery;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemCache;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    private static final int EXPORT_FETCH_SIZE = 500;
+
     private final BookingRepository bookingRepository;
+    private final ItemBookingSummaryRepository itemBookingSummaryRepository;
     private final ItemRepository itemRepository;
     private final UserService userService;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemLocks itemLocks;
+    private final ItemCache itemCache;
 
     @Override
     @Transactional
@@ -38,9 +64,50 @@ public class BookingServiceImpl implements BookingService {
         User user = UserMapper.toUser(userService.findById(userId));
         Item item = itemRepository.findById(bookingReqDto.getItemId())
                 .orElseThrow(() -> new NotFoundException("No item with id=" + bookingReqDto.getItemId() + " found"));
+        itemLocks.lockUntilCompletion(item.getId());
         validateBooking(bookingReqDto, user, item);
-        Booking booking = BookingMapper.toBooking(user, item, bookingReqDto);
-        return BookingMapper.toBookingRespDto(bookingRepository.save(booking));
+        Booking booking = bookingRepository.save(BookingMapper.toBooking(user, item, bookingReqDto));
+        bookingIntervalIndex.add(booking);
+        itemSearchIndex.recordBooking(item.getId());
+        return BookingMapper.toBookingRespDto(booking);
+    }
+
+    /**
+     * Creates the valid entries of a batch in one transaction and reports the invalid ones, loading the
+     * booker once and all requested items with one query. Each accepted booking joins the interval index
+     * before the next entry is checked, so entries overlapping each other are rejected too. Inserts are
+     * deferred to the commit, where they are sent as JDBC batches.
+     */
+    @Override
+    @Transactional
+    public List<BookingBatchResultDto> addAll(Long userId, List<BookingReqDto> bookingReqDtos) {
+        User user = UserMapper.toUser(userService.findById(userId));
+        Set<Long> itemIds = bookingReqDtos.stream()
+                .map(BookingReqDto::getItemId)
+                .collect(Collectors.toSet());
+        Map<Long, Item> items = itemRepository.findAllWithOwnerByIdIn(itemIds).stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        itemLocks.lockUntilCompletion(items.keySet());
+        List<BookingBatchResultDto> results = new ArrayList<>(bookingReqDtos.size());
+        for (BookingReqDto bookingReqDto : bookingReqDtos) {
+            try {
+                Item item = items.get(bookingReqDto.getItemId());
+                if (item == null) {
+                    throw new NotFoundException("No item with id=" + bookingReqDto.getItemId() + " found");
+                }
+                validateBooking(bookingReqDto, user, item);
+                Booking booking = bookingRepository.save(BookingMapper.toBooking(user, item, bookingReqDto));
+                bookingIntervalIndex.add(booking);
+                itemSearchIndex.recordBooking(item.getId());
+                results.add(new BookingBatchResultDto(BookingBatchResultDto.Status.CREATED,
+                        BookingMapper.toBookingRespDto(booking), null));
+            } catch (ValidationException e) {
+                results.add(new BookingBatchResultDto(BookingBatchResultDto.Status.REJECTED, null, e.getMessage()));
+            } catch (NotFoundException e) {
+                results.add(new BookingBatchResultDto(BookingBatchResultDto.Status.NOT_FOUND, null, e.getMessage()));
+            }
+        }
+        return results;
     }
 
     @Override
@@ -48,9 +115,67 @@ public class BookingServiceImpl implements BookingService {
     public BookingRespDto update(Long userId, Long bookingId, Boolean approved) {
         Booking booking = findAndValidate(userId, bookingId, 1);
         assert booking != null;
+        itemLocks.lockUntilCompletion(booking.getItem().getId());
         BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingRepository.updateStatus(List.of(bookingId), BookingStatus.WAITING, status) != 1) {
+            throw new ValidationException("Booking has no WAITING status");
+        }
         booking.setStatus(status);
-        return BookingMapper.toBookingRespDto(bookingRepository.save(booking));
+        if (status == BookingStatus.REJECTED) {
+            bookingIntervalIndex.remove(booking);
+        } else {
+            itemRepository.incrementVersions(List.of(booking.getItem().getId()));
+            itemBookingSummaryRepository.refresh(List.of(booking.getItem().getId()), LocalDateTime.now());
+            itemCache.evictOwnerViews(List.of(booking.getItem().getId()));
+        }
+        return BookingMapper.toBookingRespDto(booking);
+    }
+
+    /**
+     * Approves or rejects a set of WAITING bookings of the owner's items as a whole: the bookings are
+     * checked with one query and switched with one UPDATE. If any booking is missing, belongs to another
+     * owner or is no longer WAITING, nothing changes.
+     */
+    @Override
+    @Transactional
+    public List<BookingRespDto> updateAll(Long userId, BookingApprovalReqDto bookingApprovalReqDto) {
+        Set<Long> bookingIds = bookingApprovalReqDto.getBookingIds();
+        List<Booking> bookings = bookingRepository.findAllWithItemByIdIn(bookingIds);
+        if (bookings.size() < bookingIds.size()) {
+            Set<Long> foundIds = bookings.stream().map(Booking::getId).collect(Collectors.toSet());
+            Long missingId = bookingIds.stream().filter(id -> !foundIds.contains(id)).findFirst().orElseThrow();
+            throw new NotFoundException("Booking with id=" + missingId + " not found");
+        }
+        for (Booking booking : bookings) {
+            if (!booking.getItem().getOwner().getId().equals(userId)) {
+                throw new NotFoundException("User with id=" + userId + " is not the owner");
+            }
+            if (!booking.getStatus().equals(BookingStatus.WAITING)) {
+                throw new ValidationException("Booking with id=" + booking.getId() + " has no WAITING status");
+            }
+        }
+        Set<Long> itemIds = bookings.stream()
+                .map(booking -> booking.getItem().getId())
+                .collect(Collectors.toSet());
+        itemLocks.lockUntilCompletion(itemIds);
+        BookingStatus status = bookingApprovalReqDto.getApproved() ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingRepository.updateStatus(bookingIds, BookingStatus.WAITING, status) != bookingIds.size()) {
+            throw new ValidationException("Bookings were changed concurrently, please retry");
+        }
+        for (Booking booking : bookings) {
+            booking.setStatus(status);
+            if (status == BookingStatus.REJECTED) {
+                bookingIntervalIndex.remove(booking);
+            }
+        }
+        if (status == BookingStatus.APPROVED) {
+            itemRepository.incrementVersions(itemIds);
+            itemBookingSummaryRepository.refresh(itemIds, LocalDateTime.now());
+            itemCache.evictOwnerViews(itemIds);
+        }
+        return bookings.stream()
+                .map(BookingMapper::toBookingRespDto)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -61,76 +186,111 @@ public class BookingServiceImpl implements BookingService {
         return BookingMapper.toBookingRespDto(booking);
     }
 
+    /**
+     * Returns the entity tag of the booking, combining the versions of the booking and of its item with a hash
+     * of the booker's name and email, which users do not version. Only the booker and the owner of the item may
+     * see it, as in {@link #findByUserId}.
+     */
     @Override
-    @Transactional
-    public List<BookingRespDto> findAll(Long bookerId, String state, Integer from, Integer size) {
-        Pageable pageable = getPageable(from, size);
-        userService.findById(bookerId);
-        switch (validState(state)) {
-            case ALL:
-                return bookingRepository.findAllBookingsByBookerId(bookerId, pageable).stream()
-                        .map(BookingMapper::toBookingRespDto)
-                        .collect(Collectors.toList());
-            case CURRENT:
-                return bookingRepository.findAllCurrentBookingsByBookerId(bookerId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingRespDto)
-                        .collect(Collectors.toList());
-            case PAST:
-                return bookingRepository.findAllPastBookingsByBookerId(bookerId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingRespDto)
-                        .collect(Collectors.toList());
-            case FUTURE:
-                return bookingRepository.findAllFutureBookingsByBookerId(bookerId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingRespDto)
-                        .collect(Collectors.toList());
-            case WAITING:
-                return bookingRepository.findAllWaitingBookingsByBookerId(bookerId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingRespDto)
-                        .collect(Collectors.toList());
-            case REJECTED:
-                return bookingRepository.findAllRejectedBookingsByBookerId(bookerId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingRespDto)
-                        .collect(Collectors.toList());
-            default:
-                throw new IllegalArgumentException("Unsupported state");
+    public String findETag(Long userId, Long bookingId) {
+        BookingVersion bookingVersion = bookingRepository.findVersionById(bookingId)
+                .orElseThrow(() -> new NotFoundException("Booking with id=" + bookingId + " not found"));
+        if (!bookingVersion.getBookerId().equals(userId) && !bookingVersion.getOwnerId().equals(userId)) {
+            throw new NotFoundException("User with id=" + userId + " is not the booker or the owner");
         }
+        return bookingVersion.getVersion() + "-" + bookingVersion.getItemVersion() + "-"
+                + Integer.toHexString(Objects.hash(bookingVersion.getBookerName(), bookingVersion.getBookerEmail()));
+    }
+
+    @Override
+    public List<BookingRespDto> findAll(Long bookerId, String state, Integer from, Integer size) {
+        return findBookings(BookingRole.BOOKER, bookerId, state, from, size);
     }
 
     @Override
-    @Transactional
     public List<BookingRespDto> findAllByOwnerId(Long ownerId, String state, Integer from, Integer size) {
-        Pageable pageable = getPageable(from, size);
-        userService.findById(ownerId);
-        switch (validState(state)) {
-            case ALL:
-                return bookingRepository.findAllBookingsByOwnerId(ownerId, pageable).stream()
-                        .map(BookingMapper::toBookingRespDto)
-                        .collect(Collectors.toList());
-            case CURRENT:
-                return bookingRepository.findAllCurrentBookingsByOwnerId(ownerId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingRespDto)
-                        .collect(Collectors.toList());
-            case PAST:
-                return bookingRepository.findAllPastBookingsByOwnerId(ownerId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingRespDto)
-                        .collect(Collectors.toList());
-            case FUTURE:
-                return bookingRepository.findAllFutureBookingsByOwnerId(ownerId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingRespDto)
-                        .collect(Collectors.toList());
-            case WAITING:
-                return bookingRepository.findAllWaitingBookingsByOwnerId(ownerId, LocalDateTime.now(), pageable).stream()
-                        .map(BookingMapper::toBookingRespDto)
-                        .collect(Collectors.toList());
-            case REJECTED:
-                return bookingRepository.findAllRejectedBookingsByOwnerId(ownerId, pageable).stream()
-                        .map(BookingMapper::toBookingRespDto)
-                        .collect(Collectors.toList());
-            default:
-                throw new IllegalArgumentException("Unknown state: UNSUPPORTED_STATUS");
+        return findBookings(BookingRole.OWNER, ownerId, state, from, size);
+    }
+
+    @Override
+    public BookingPageDto findAllByCursor(Long bookerId, String state, String cursor, Integer size) {
+        return findBookingPage(BookingRole.BOOKER, bookerId, state, cursor, size);
+    }
+
+    @Override
+    public BookingPageDto findAllByOwnerIdAndCursor(Long ownerId, String state, String cursor, Integer size) {
+        return findBookingPage(BookingRole.OWNER, ownerId, state, cursor, size);
+    }
+
+    /**
+     * Hands every booking of the owner's items to {@code consumer}, newest first, as rows arrive from
+     * the database cursor. Nothing is collected, so memory does not depend on the size of the history.
+     * The owner is checked before the first row, while the caller can still report an error.
+     */
+    @Override
+    public void exportAllByOwnerId(Long ownerId, Consumer<BookingRespDto> consumer) {
+        userService.checkExists(ownerId);
+        BookingQuery bookingQuery = BookingQuery.builder()
+                .role(BookingRole.OWNER)
+                .userId(ownerId)
+                .state(BookingState.ALL)
+                .currentTime(LocalDateTime.now())
+                .build();
+        try (Stream<BookingView> bookings = bookingRepository.streamViewsByQuery(bookingQuery, EXPORT_FETCH_SIZE)) {
+            bookings.map(BookingMapper::toBookingRespDto).forEach(consumer);
         }
     }
 
+    @Override
+    public BookingStatsDto findStats(Long bookerId) {
+        return findBookingStats(BookingRole.BOOKER, bookerId);
+    }
+
+    @Override
+    public BookingStatsDto findStatsByOwnerId(Long ownerId) {
+        return findBookingStats(BookingRole.OWNER, ownerId);
+    }
+
+    private List<BookingRespDto> findBookings(BookingRole role, Long userId, String state, Integer from, Integer size) {
+        userService.checkExists(userId);
+        BookingQuery bookingQuery = BookingQuery.builder()
+                .role(role)
+                .userId(userId)
+                .state(validState(state))
+                .currentTime(LocalDateTime.now())
+                .offset(from / size * size)
+                .size(size)
+                .build();
+        return bookingRepository.findViewsByQuery(bookingQuery).stream()
+                .map(BookingMapper::toBookingRespDto)
+                .collect(Collectors.toList());
+    }
+
+    private BookingPageDto findBookingPage(BookingRole role, Long userId, String state, String cursor, Integer size) {
+        BookingCursor bookingCursor = BookingCursor.decode(cursor);
+        userService.checkExists(userId);
+        BookingQuery bookingQuery = BookingQuery.builder()
+                .role(role)
+                .userId(userId)
+                .state(validState(state))
+                .currentTime(LocalDateTime.now())
+                .cursor(bookingCursor)
+                .size(size)
+                .build();
+        return BookingMapper.toBookingPageDto(bookingRepository.findViewsByQuery(bookingQuery), size);
+    }
+
+    private BookingStatsDto findBookingStats(BookingRole role, Long userId) {
+        userService.checkExists(userId);
+        BookingQuery bookingQuery = BookingQuery.builder()
+                .role(role)
+                .userId(userId)
+                .state(BookingState.ALL)
+                .currentTime(LocalDateTime.now())
+                .build();
+        return BookingMapper.toBookingStatsDto(bookingRepository.countByState(bookingQuery));
+    }
+
     private void validateBooking(BookingReqDto bookingReqDto, User user, Item item) {
         if (!item.getAvailable()) {
             throw new ValidationException("Item not available for booking");
@@ -141,6 +301,9 @@ public class BookingServiceImpl implements BookingService {
         if (bookingReqDto.getStart().isAfter(bookingReqDto.getEnd()) || bookingReqDto.getStart().isEqual(bookingReqDto.getEnd())) {
             throw new ValidationException("Booking must end after start");
         }
+        if (bookingIntervalIndex.overlaps(item.getId(), bookingReqDto.getStart(), bookingReqDto.getEnd())) {
+            throw new ValidationException("Item is already booked for the requested dates");
+        }
     }
 
     private Booking findAndValidate(Long userId, Long bookingId, Integer caseNum) {
@@ -173,8 +336,4 @@ public class BookingServiceImpl implements BookingService {
         }
         return state;
     }
-
-    private Pageable getPageable(Integer from, Integer size) {
-        return PageRequest.of(from / size, size);
-    }
 }
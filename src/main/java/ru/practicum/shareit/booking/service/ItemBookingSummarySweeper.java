@@ -0,0 +1,58 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.lock.ItemLocks;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Rolls item booking summaries forward as time passes: once the next booking of an item has started it is
+ * the last one, and the summary is recomputed. Readers do not depend on the sweep for correctness, they
+ * fall back to the bookings for summaries it has not reached yet, so it only keeps that fallback rare.
+ * <p>
+ * Summaries are refreshed in batches, each in its own transaction under the item locks, so a sweep never
+ * overwrites a refresh made by a concurrent approval. Batches are kept small because each one holds the lock
+ * stripes of its items until it commits, and bookings of every item sharing a stripe wait for them.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBookingSummarySweeper {
+    static final int BATCH_SIZE = 16;
+
+    private final ItemBookingSummaryRepository itemBookingSummaryRepository;
+    private final ItemLocks itemLocks;
+    private final TransactionTemplate transactionTemplate;
+
+    @Scheduled(fixedDelayString = "${shareit.booking-summary.sweep-interval:PT1M}",
+            initialDelayString = "${shareit.booking-summary.sweep-interval:PT1M}")
+    public void sweep() {
+        int total = 0;
+        Integer refreshed;
+        do {
+            refreshed = transactionTemplate.execute(status -> sweepBatch(LocalDateTime.now()));
+            total += refreshed == null ? 0 : refreshed;
+        } while (refreshed != null && refreshed == BATCH_SIZE);
+        if (total > 0) {
+            log.debug("Refreshed {} item booking summaries", total);
+        }
+    }
+
+    private int sweepBatch(LocalDateTime now) {
+        List<Long> itemIds = itemBookingSummaryRepository
+                .findItemIdsByNextStartBefore(now, PageRequest.of(0, BATCH_SIZE));
+        if (itemIds.isEmpty()) {
+            return 0;
+        }
+        itemLocks.lockUntilCompletion(itemIds);
+        itemBookingSummaryRepository.refresh(itemIds, now);
+        return itemIds.size();
+    }
+}
@@ -0,0 +1,206 @@
+package ru.practicum.shareit.datagen;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookingStatus;
+
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+/**
+ * Fills empty {@code users}, {@code requests}, {@code items}, {@code bookings} and {@code comments}
+ * tables with synthetic rows at production-like skew: the number of items per owner and the
+ * number of bookings and comments per item follow Zipf distributions, so a few owners and items
+ * are hot and most are cold.
+ * <p>
+ * Rows are written with JDBC batches of {@code batchSize}, one transaction per batch. Every table
+ * draws from its own random stream derived from the seed, so the same seed and sizes produce the
+ * same rows, and changing the size of one table does not change the rows of the tables before it.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class DataGenerator {
+    private static final String[] ADJECTIVES = {"cordless", "electric", "folding", "heavy", "compact", "old",
+            "new", "large", "small", "portable", "wooden", "steel", "camping", "garden", "kids"};
+    private static final String[] NOUNS = {"drill", "saw", "ladder", "tent", "bike", "kayak", "projector",
+            "mixer", "hammer", "grill", "table", "chair", "speaker", "camera", "scooter", "lawnmower"};
+    private static final BookingStatus[] STATUSES = {BookingStatus.APPROVED, BookingStatus.APPROVED,
+            BookingStatus.APPROVED, BookingStatus.APPROVED, BookingStatus.APPROVED, BookingStatus.APPROVED,
+            BookingStatus.APPROVED, BookingStatus.WAITING, BookingStatus.WAITING, BookingStatus.REJECTED,
+            BookingStatus.CANCELED};
+    private static final int DAYS_SPREAD = 365;
+    private static final int ID_ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DataGeneratorProperties properties;
+
+    public void generate() {
+        Integer existingUsers = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM users", Integer.class);
+        if (existingUsers != null && existingUsers > 0) {
+            throw new IllegalStateException("Data can only be generated into empty tables");
+        }
+        LocalDateTime reference = (properties.getReferenceDate() != null
+                ? properties.getReferenceDate() : LocalDate.now()).atStartOfDay();
+        long startedAt = System.currentTimeMillis();
+        generateUsers();
+        generateRequests(reference);
+        int[] owners = generateItems();
+        generateBookings(reference, owners);
+        generateComments(reference, owners);
+        summarizeBookings();
+        restartIds("users", properties.getUsers());
+        restartIds("requests", properties.getRequests());
+        restartIds("items", properties.getItems());
+        restartIds("bookings", properties.getBookings());
+        restartIds("comments", properties.getComments());
+        log.info("Generated {} users, {} requests, {} items, {} bookings and {} comments in {} ms",
+                properties.getUsers(), properties.getRequests(), properties.getItems(), properties.getBookings(),
+                properties.getComments(), System.currentTimeMillis() - startedAt);
+    }
+
+    private void generateUsers() {
+        Batch batch = new Batch("INSERT INTO users (id, name, email) VALUES (?, ?, ?)");
+        for (long id = 1; id <= properties.getUsers(); id++) {
+            batch.add(id, "user" + id, "user" + id + "@mail.com");
+        }
+        batch.flush();
+    }
+
+    private void generateRequests(LocalDateTime reference) {
+        SplittableRandom random = random(1);
+        Batch batch = new Batch("INSERT INTO requests (id, description, requestor_id, created) VALUES (?, ?, ?, ?)");
+        for (long id = 1; id <= properties.getRequests(); id++) {
+            batch.add(id, "looking for a " + itemName(random), user(random),
+                    Timestamp.valueOf(reference.minusMinutes(random.nextInt(DAYS_SPREAD * 24 * 60))));
+        }
+        batch.flush();
+    }
+
+    /**
+     * Returns the owner of every item, indexed by item id.
+     */
+    private int[] generateItems() {
+        SplittableRandom random = random(2);
+        ZipfSampler ownerSampler = new ZipfSampler(properties.getUsers(), properties.getOwnerSkew());
+        int[] owners = new int[properties.getItems() + 1];
+        Batch batch = new Batch("INSERT INTO items (id, name, description, available, owner_id, request_id) "
+                + "VALUES (?, ?, ?, ?, ?, ?)");
+        for (int id = 1; id <= properties.getItems(); id++) {
+            owners[id] = ownerSampler.sample(random);
+            String name = itemName(random);
+            Long requestId = properties.getRequests() > 0 && random.nextInt(10) == 0
+                    ? (long) random.nextInt(properties.getRequests()) + 1 : null;
+            batch.add(id, name, "a " + name + " in good condition", random.nextInt(10) != 0, owners[id], requestId);
+        }
+        batch.flush();
+        return owners;
+    }
+
+    private void generateBookings(LocalDateTime reference, int[] owners) {
+        SplittableRandom random = random(3);
+        ZipfSampler itemSampler = new ZipfSampler(properties.getItems(), properties.getItemSkew());
+        Batch batch = new Batch("INSERT INTO bookings (id, start_date, end_date, item_id, booker_id, status) "
+                + "VALUES (?, ?, ?, ?, ?, ?)");
+        for (long id = 1; id <= properties.getBookings(); id++) {
+            int itemId = itemSampler.sample(random);
+            LocalDateTime start = reference.plusHours(random.nextInt(-DAYS_SPREAD * 24, DAYS_SPREAD * 24));
+            LocalDateTime end = start.plusHours(random.nextInt(1, 14 * 24));
+            batch.add(id, Timestamp.valueOf(start), Timestamp.valueOf(end), itemId, notOwner(random, owners[itemId]),
+                    STATUSES[random.nextInt(STATUSES.length)].name());
+        }
+        batch.flush();
+    }
+
+    private void generateComments(LocalDateTime reference, int[] owners) {
+        SplittableRandom random = random(4);
+        ZipfSampler itemSampler = new ZipfSampler(properties.getItems(), properties.getItemSkew());
+        Batch batch = new Batch("INSERT INTO comments (id, text, item_id, author_id, created) "
+                + "VALUES (?, ?, ?, ?, ?)");
+        for (long id = 1; id <= properties.getComments(); id++) {
+            int itemId = itemSampler.sample(random);
+            batch.add(id, "comment " + id, itemId, notOwner(random, owners[itemId]),
+                    Timestamp.valueOf(reference.minusMinutes(random.nextInt(DAYS_SPREAD * 24 * 60))));
+        }
+        batch.flush();
+        jdbcTemplate.update("UPDATE items AS i SET comment_count = "
+                + "(SELECT COUNT(*) FROM comments AS c WHERE c.item_id = i.id)");
+    }
+
+    /**
+     * Fills the item booking summaries as of now, the way approvals and the sweeper keep them.
+     */
+    private void summarizeBookings() {
+        LocalDateTime now = LocalDateTime.now();
+        jdbcTemplate.update("INSERT INTO item_booking_summary (item_id, last_booking_id, next_booking_id, "
+                + "approved_count, last_booked_at, next_start_date) "
+                + "SELECT b.item_id, "
+                + "(SELECT l.id FROM bookings AS l WHERE l.item_id = b.item_id AND l.status = 'APPROVED' "
+                + "AND l.start_date <= ? ORDER BY l.start_date DESC, l.id DESC LIMIT 1), "
+                + "(SELECT n.id FROM bookings AS n WHERE n.item_id = b.item_id AND n.status = 'APPROVED' "
+                + "AND n.start_date > ? ORDER BY n.start_date, n.id LIMIT 1), "
+                + "COUNT(*), "
+                + "MAX(CASE WHEN b.start_date <= ? THEN b.start_date END), "
+                + "MIN(CASE WHEN b.start_date > ? THEN b.start_date END) "
+                + "FROM bookings AS b WHERE b.status = 'APPROVED' GROUP BY b.item_id", now, now, now, now);
+    }
+
+    /**
+     * Moves the id sequence of {@code table} past the generated ids, so rows added later, by Hibernate
+     * or by the column default, do not collide with them. The sequence hands out blocks of
+     * {@code ID_ALLOCATION_SIZE} ending at its value, hence the extra block.
+     */
+    private void restartIds(String table, int generated) {
+        jdbcTemplate.execute("ALTER SEQUENCE " + table + "_seq RESTART WITH " + (generated + ID_ALLOCATION_SIZE));
+    }
+
+    private SplittableRandom random(int stream) {
+        return new SplittableRandom(properties.getSeed() * 31 + stream);
+    }
+
+    private int user(SplittableRandom random) {
+        return random.nextInt(properties.getUsers()) + 1;
+    }
+
+    private int notOwner(SplittableRandom random, int ownerId) {
+        if (properties.getUsers() == 1) {
+            return ownerId;
+        }
+        int userId = random.nextInt(properties.getUsers() - 1) + 1;
+        return userId >= ownerId ? userId + 1 : userId;
+    }
+
+    private static String itemName(SplittableRandom random) {
+        return ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)];
+    }
+
+    private class Batch {
+        private final String sql;
+        private final List<Object[]> rows = new ArrayList<>();
+
+        Batch(String sql) {
+            this.sql = sql;
+        }
+
+        void add(Object... row) {
+            rows.add(row);
+            if (rows.size() >= properties.getBatchSize()) {
+                flush();
+            }
+        }
+
+        void flush() {
+            if (rows.isEmpty()) {
+                return;
+            }
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(sql, rows));
+            rows.clear();
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.datagen;
+
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Generates the synthetic dataset on startup when the {@code datagen} profile is active, before
+ * the application starts serving requests. Sizes, skew and seed are set with the
+ * {@code shareit.datagen.*} properties.
+ */
+@Configuration
+@Profile("datagen")
+@EnableConfigurationProperties(DataGeneratorProperties.class)
+public class DataGeneratorConfiguration {
+
+    @Bean
+    public DataGenerator dataGenerator(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                       DataGeneratorProperties properties) {
+        return new DataGenerator(jdbcTemplate, new TransactionTemplate(transactionManager), properties);
+    }
+
+    @Bean
+    public ApplicationRunner dataGeneratorRunner(DataGenerator dataGenerator) {
+        return args -> dataGenerator.generate();
+    }
+}
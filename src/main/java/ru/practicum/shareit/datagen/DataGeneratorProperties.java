@@ -0,0 +1,37 @@
+package ru.practicum.shareit.datagen;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.datagen")
+public class DataGeneratorProperties {
+    /**
+     * Seed of every random choice; the same seed and sizes always produce the same rows.
+     */
+    private long seed = 42;
+    /**
+     * Day the generated booking and comment dates are spread around, as {@code yyyy-MM-dd}. Defaults to today.
+     */
+    @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
+    private LocalDate referenceDate;
+    private int users = 100_000;
+    private int requests = 200_000;
+    private int items = 1_000_000;
+    private int bookings = 5_000_000;
+    private int comments = 1_000_000;
+    /**
+     * Zipf exponent of the number of items per owner.
+     */
+    private double ownerSkew = 1.1;
+    /**
+     * Zipf exponent of the number of bookings and comments per item.
+     */
+    private double itemSkew = 1.0;
+    private int batchSize = 1_000;
+}
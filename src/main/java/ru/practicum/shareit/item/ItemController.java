@@ -2,16 +2,27 @@ package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import ru.practicum.shareit.item.dto.CommentPageDto;
 import ru.practicum.shareit.item.dto.CommentReqDto;
 import ru.practicum.shareit.item.dto.CommentRespDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemReqDto;
 import ru.practicum.shareit.item.dto.ItemRespDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.item.service.ItemService;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.time.LocalDateTime;
 import java.util.List;
 
 @RestController
@@ -21,6 +32,8 @@ import java.util.List;
 @Validated
 public class ItemController {
     public static final String USER_HEADER = "X-Sharer-User-Id";
+    public static final int MAX_IDS = 100;
+    public static final int MAX_COMMENTS = 100;
     private final ItemService itemService;
 
     @PostMapping
@@ -40,9 +53,10 @@ public class ItemController {
 
     @GetMapping("/{itemId}")
     public ItemRespDto findById(@RequestHeader(USER_HEADER) long userId,
-                                @PathVariable("itemId") Long itemId) {
+                                @PathVariable("itemId") Long itemId,
+                                WebRequest request) {
         log.info("GET \"/item/{}\" , Headers:(X-Sharer-User-Id)={}", itemId, userId);
-        return itemService.findById(userId, itemId);
+        return itemService.findTaggedById(userId, itemId, request::checkNotModified).getItem();
     }
 
     @GetMapping
@@ -55,6 +69,14 @@ public class ItemController {
         return itemService.findAll(userId, from, size);
     }
 
+    @GetMapping(params = "ids")
+    public List<ItemRespDto> findAllByIds(@RequestHeader(USER_HEADER) Long userId,
+                                          @RequestParam(name = "ids") @NotEmpty @Size(max = MAX_IDS)
+                                          List<@NotNull Long> ids) {
+        log.info("GET \"/item?ids={}\", Headers:(X-Sharer-User-Id)={}", ids, userId);
+        return itemService.findAllByIds(userId, ids);
+    }
+
     @GetMapping("/search")
     public List<ItemRespDto> search(@RequestHeader(USER_HEADER) Long userId,
                                     @RequestParam(name = "text") String text,
@@ -66,6 +88,26 @@ public class ItemController {
         return itemService.search(userId, text, from, size);
     }
 
+    @GetMapping("/suggest")
+    public List<ItemSuggestionDto> suggest(@RequestHeader(USER_HEADER) Long userId,
+                                           @RequestParam(name = "prefix") String prefix,
+                                           @RequestParam(value = "size", defaultValue = "10")
+                                           @Min(1) @Max(ItemSearchIndex.MAX_SUGGESTIONS) Integer size) {
+        log.info("GET \"/item/suggest?prefix={}\", Headers:(X-Sharer-User-Id)={}", prefix, userId);
+        return itemService.suggest(userId, prefix, size);
+    }
+
+    @GetMapping("/{itemId}/availability")
+    public List<FreeSlotDto> findAvailability(@RequestHeader(USER_HEADER) Long userId,
+                                              @PathVariable("itemId") Long itemId,
+                                              @RequestParam(name = "from")
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                              @RequestParam(name = "to")
+                                              @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        log.info("GET \"/item/{}/availability?from={}&to={}\", Headers:(X-Sharer-User-Id)={}", itemId, from, to, userId);
+        return itemService.findAvailability(userId, itemId, from, to);
+    }
+
     @PostMapping("/{itemId}/comment")
     public CommentRespDto addComment(@RequestHeader(USER_HEADER) Long userId,
                                      @Valid @RequestBody CommentReqDto commentReqDto,
@@ -73,4 +115,14 @@ public class ItemController {
         log.info("POST \"/item/{}/comment\", Body:{}, Headers:(X-Sharer-User-Id)={}", itemId, commentReqDto, userId);
         return itemService.addComment(userId, commentReqDto, itemId);
     }
+
+    @GetMapping("/{itemId}/comments")
+    public CommentPageDto findComments(@RequestHeader(USER_HEADER) Long userId,
+                                       @PathVariable Long itemId,
+                                       @RequestParam(value = "cursor", required = false) String cursor,
+                                       @RequestParam(value = "size", defaultValue = "10")
+                                       @Min(1) @Max(MAX_COMMENTS) Integer size) {
+        log.info("GET \"/item/{}/comments?cursor={}\", Headers:(X-Sharer-User-Id)={}", itemId, cursor, userId);
+        return itemService.findComments(userId, itemId, cursor, size);
+    }
 }
\ No newline at end of file
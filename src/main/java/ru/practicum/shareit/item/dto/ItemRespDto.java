@@ -18,6 +18,7 @@ public class ItemRespDto {
     private List<CommentRespDto> comments;
     private BookingRespDto nextBooking;
     private Long requestId;
+    private Long commentCount;
 
     public ItemRespDto(Long id, String name, String description, Boolean available) {
         this.id = id;
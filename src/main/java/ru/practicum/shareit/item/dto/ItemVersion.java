@@ -0,0 +1,10 @@
+package ru.practicum.shareit.item.dto;
+
+/**
+ * Change counter of an item, with its owner to tell which view of the item a user gets.
+ */
+public interface ItemVersion {
+    Long getOwnerId();
+
+    Long getVersion();
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.item.dto;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Item details as shown to a user, with the entity tag of exactly that view. The item is {@code null}
+ * when the client already has the view of that tag.
+ */
+@Getter
+@RequiredArgsConstructor
+public class TaggedItem {
+    private final String eTag;
+    private final ItemRespDto item;
+}
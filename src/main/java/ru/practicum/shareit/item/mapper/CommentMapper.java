@@ -1,12 +1,18 @@
 package ru.practicum.shareit.item.mapper;
 
 import lombok.experimental.UtilityClass;
+import ru.practicum.shareit.item.dto.CommentPageDto;
 import ru.practicum.shareit.item.dto.CommentReqDto;
 import ru.practicum.shareit.item.dto.CommentRespDto;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentCursor;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 
+import java.util.List;
+import java.util.stream.Collectors;
+
 @UtilityClass
 public class CommentMapper {
     public CommentReqDto toCommentReqDto(Comment comment) {
@@ -22,6 +28,27 @@ public class CommentMapper {
                 comment.getItem().getId());
     }
 
+    public CommentRespDto toCommentRespDto(CommentView comment) {
+        return new CommentRespDto(
+                comment.getId(),
+                comment.getText(),
+                comment.getAuthorName(),
+                comment.getCreated(),
+                comment.getItemId());
+    }
+
+    public CommentPageDto toCommentPageDto(List<Comment> comments, int size) {
+        String nextCursor = null;
+        if (comments.size() == size) {
+            nextCursor = CommentCursor.of(comments.get(comments.size() - 1)).encode();
+        }
+        return new CommentPageDto(
+                comments.stream()
+                        .map(CommentMapper::toCommentRespDto)
+                        .collect(Collectors.toList()),
+                nextCursor);
+    }
+
     public Comment toComment(CommentReqDto commentReqDto, Item item, User user) {
         return new Comment(
                 commentReqDto.getText(),
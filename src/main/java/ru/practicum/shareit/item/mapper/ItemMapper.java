@@ -39,7 +39,7 @@ public class ItemMapper {
                                      BookingRespDto lastBooking,
                                      List<CommentRespDto> comments,
                                      BookingRespDto nextBooking) {
-        return new ItemRespDto(
+        ItemRespDto itemRespDto = new ItemRespDto(
                 item.getId(),
                 item.getName(),
                 item.getDescription(),
@@ -48,6 +48,25 @@ public class ItemMapper {
                 comments,
                 nextBooking
         );
+        itemRespDto.setCommentCount(item.getCommentCount());
+        return itemRespDto;
+    }
+
+    public ItemRespDto toItemRespDto(ItemRespDto itemRespDto,
+                                     BookingRespDto lastBooking,
+                                     List<CommentRespDto> comments,
+                                     BookingRespDto nextBooking) {
+        return new ItemRespDto(
+                itemRespDto.getId(),
+                itemRespDto.getName(),
+                itemRespDto.getDescription(),
+                itemRespDto.getAvailable(),
+                lastBooking,
+                comments,
+                nextBooking,
+                itemRespDto.getRequestId(),
+                itemRespDto.getCommentCount()
+        );
     }
 
     public Item toItem(ItemReqDto itemReqDto) {
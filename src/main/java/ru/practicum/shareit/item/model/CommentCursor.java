@@ -0,0 +1,53 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.ToString;
+import ru.practicum.shareit.exception.ValidationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Base64;
+
+/**
+ * Keyset position in the comments of an item ordered by {@code (created DESC, id DESC)}.
+ * Clients only see the encoded form and pass it back unchanged to get the next page.
+ */
+@Getter
+@ToString
+@EqualsAndHashCode
+@RequiredArgsConstructor
+public class CommentCursor {
+    private static final String SEPARATOR = "|";
+
+    private final LocalDateTime created;
+    private final Long id;
+
+    public static CommentCursor of(Comment comment) {
+        // Timestamps are stored with microsecond precision; a managed entity may still hold nanoseconds.
+        return new CommentCursor(comment.getCreated().truncatedTo(ChronoUnit.MICROS), comment.getId());
+    }
+
+    public static CommentCursor decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separatorIndex = value.lastIndexOf(SEPARATOR);
+            return new CommentCursor(
+                    LocalDateTime.parse(value.substring(0, separatorIndex)),
+                    Long.parseLong(value.substring(separatorIndex + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException | DateTimeException e) {
+            throw new ValidationException("Invalid cursor: " + cursor);
+        }
+    }
+
+    public String encode() {
+        String value = created + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -14,7 +14,8 @@ import javax.persistence.*;
 @Builder
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "items_seq")
+    @SequenceGenerator(name = "items_seq", sequenceName = "items_seq", allocationSize = 50)
     private Long id;
     @Column(name = "name", nullable = false)
     private String name;
@@ -32,6 +33,13 @@ public class Item {
     @ToString.Exclude
     @EqualsAndHashCode.Exclude
     private ItemRequest request;
+    @Column(name = "comment_count", nullable = false)
+    @EqualsAndHashCode.Exclude
+    private long commentCount;
+    @Version
+    @Column(name = "version", nullable = false)
+    @EqualsAndHashCode.Exclude
+    private long version;
 
     public Item(String name, String description, Boolean available) {
         this.name = name;
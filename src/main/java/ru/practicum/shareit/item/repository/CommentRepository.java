@@ -1,12 +1,45 @@
 package ru.practicum.shareit.item.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.model.Comment;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    List<Comment> findAllByItemId(Long itemId);
+    @Query("select c from Comment as c join fetch c.author where c.item.id = :itemId " +
+            "order by c.created desc, c.id desc")
+    List<Comment> findAllByItemId(@Param("itemId") Long itemId, Pageable pageable);
 
-    List<Comment> findAllByItemIdIn(List<Long> itemIds);
-}
\ No newline at end of file
+    /**
+     * Returns the comments of the item that come after the cursor in {@code (created DESC, id DESC)} order,
+     * seeking along the (item_id, created, id) index instead of skipping the comments before it.
+     */
+    @Query("select c from Comment as c join fetch c.author where c.item.id = :itemId " +
+            "and (c.created < :cursorCreated or (c.created = :cursorCreated and c.id < :cursorId)) " +
+            "order by c.created desc, c.id desc")
+    List<Comment> findAllByItemIdAfter(@Param("itemId") Long itemId,
+                                       @Param("cursorCreated") LocalDateTime cursorCreated,
+                                       @Param("cursorId") Long cursorId,
+                                       Pageable pageable);
+
+    /**
+     * Returns up to {@code limit} newest comments of each of the given items, newest first within an item.
+     */
+    @Query(value = "SELECT x.id AS \"id\", x.text AS \"text\", u.name AS \"authorName\", " +
+            "x.created AS \"created\", x.item_id AS \"itemId\" " +
+            "FROM (SELECT c.*, ROW_NUMBER() OVER (" +
+            "PARTITION BY c.item_id ORDER BY c.created DESC, c.id DESC) AS rn " +
+            "FROM comments AS c " +
+            "WHERE c.item_id IN (:itemIds)) AS x " +
+            "JOIN users AS u ON u.id = x.author_id " +
+            "WHERE x.rn <= :limit " +
+            "ORDER BY x.item_id, x.created DESC, x.id DESC", nativeQuery = true)
+    List<CommentView> findNewestByItemIdIn(@Param("itemIds") Collection<Long> itemIds,
+                                           @Param("limit") int limit);
+}
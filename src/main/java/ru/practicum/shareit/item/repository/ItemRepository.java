@@ -1,21 +1,49 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import ru.practicum.shareit.item.dto.ItemVersion;
 import ru.practicum.shareit.item.model.Item;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
-    @Query("select i " +
-           "from Item as i " +
-           "where i.available = true and " +
-           "(lower(i.name) like lower(concat('%', ?1, '%') ) or " +
-           "lower(i.description) like lower(concat('%', ?1, '%') ))")
-    List<Item> search(String text, Pageable pageable);
+    Slice<Item> findAllByAvailableTrue(Pageable pageable);
 
-    List<Item> findAllByOwnerId(Long ownerId, Pageable pageable);
+    @Query("select i from Item as i where i.owner.id = :ownerId")
+    List<Item> findAllByOwnerId(@Param("ownerId") Long ownerId, Pageable pageable);
 
-    List<Item> findAllByOwnerIdOrderByIdAsc(Long ownerId, Pageable pageable);
+    @Query("select i from Item as i where i.owner.id = :ownerId order by i.id asc")
+    List<Item> findAllByOwnerIdOrderByIdAsc(@Param("ownerId") Long ownerId, Pageable pageable);
+
+    @Query("select i from Item as i join fetch i.owner left join fetch i.request where i.id in :ids")
+    List<Item> findAllWithOwnerByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select i from Item as i join fetch i.owner where i.request.id in :requestIds")
+    List<Item> findAllByRequestIdIn(@Param("requestIds") Collection<Long> requestIds);
+
+    @Query("select i.owner.id as ownerId, i.version as version from Item as i where i.id = :itemId")
+    Optional<ItemVersion> findVersionById(@Param("itemId") Long itemId);
+
+    /**
+     * Bumps the version of items whose details changed through other entities, such as a new comment or an
+     * approved booking. Items already loaded keep their old version, so they must not be modified afterwards
+     * in the same transaction.
+     */
+    @Modifying
+    @Query("update Item as i set i.version = i.version + 1 where i.id in :itemIds")
+    int incrementVersions(@Param("itemIds") Collection<Long> itemIds);
+
+    /**
+     * Counts a new comment of the item and bumps its version, with the same caveat as {@link #incrementVersions}.
+     */
+    @Modifying
+    @Query("update Item as i set i.commentCount = i.commentCount + 1, i.version = i.version + 1 where i.id = :itemId")
+    int incrementCommentCount(@Param("itemId") Long itemId);
 }
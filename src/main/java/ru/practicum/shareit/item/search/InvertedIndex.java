@@ -0,0 +1,97 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Term to document postings with Okapi BM25 ranking.
+ * <p>
+ * Every query term also matches the indexed terms it is a prefix of, so a partly typed word
+ * still finds its documents; a document is credited once per query term, with the best
+ * scoring of its matching terms. Not thread-safe.
+ */
+public class InvertedIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final NavigableMap<String, Map<Long, Integer>> postings = new TreeMap<>();
+    private final Map<Long, List<String>> documents = new HashMap<>();
+    private long totalLength;
+
+    public void put(long id, List<String> terms) {
+        remove(id);
+        if (terms.isEmpty()) {
+            return;
+        }
+        documents.put(id, terms);
+        totalLength += terms.size();
+        for (String term : terms) {
+            postings.computeIfAbsent(term, key -> new HashMap<>()).merge(id, 1, Integer::sum);
+        }
+    }
+
+    public boolean remove(long id) {
+        List<String> terms = documents.remove(id);
+        if (terms == null) {
+            return false;
+        }
+        totalLength -= terms.size();
+        for (String term : new LinkedHashSet<>(terms)) {
+            Map<Long, Integer> termPostings = postings.get(term);
+            termPostings.remove(id);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        return true;
+    }
+
+    public boolean contains(long id) {
+        return documents.containsKey(id);
+    }
+
+    public int size() {
+        return documents.size();
+    }
+
+    /**
+     * Returns the ids of the documents matching any of the query terms, best score first
+     * and by id on ties, skipping {@code offset} of them.
+     */
+    public List<Long> search(List<String> queryTerms, int offset, int limit) {
+        Map<Long, Double> scores = new HashMap<>();
+        for (String queryTerm : new LinkedHashSet<>(queryTerms)) {
+            Map<Long, Double> termScores = new HashMap<>();
+            postings.subMap(queryTerm, true, queryTerm + Character.MAX_VALUE, false)
+                    .forEach((term, termPostings) -> {
+                        double idf = idf(termPostings.size());
+                        termPostings.forEach((id, frequency) ->
+                                termScores.merge(id, idf * saturation(frequency, id), Math::max));
+                    });
+            termScores.forEach((id, score) -> scores.merge(id, score, Double::sum));
+        }
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .skip(offset)
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+
+    private double idf(int documentFrequency) {
+        return Math.log(1 + (documents.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private double saturation(int frequency, long id) {
+        double averageLength = (double) totalLength / documents.size();
+        double lengthNorm = 1 - B + B * documents.get(id).size() / averageLength;
+        return frequency * (K1 + 1) / (frequency + K1 * lengthNorm);
+    }
+}
@@ -0,0 +1,191 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Full-text index over the name and description of every available item, and a prefix trie
+ * over the words of their names that suggests the most booked items first.
+ * <p>
+ * Built from the database once the application is ready and kept current by {@link #index},
+ * which the item service calls on every write, and by {@link #recordBooking}. Both take effect
+ * once the surrounding transaction commits, so searches never see uncommitted items or bookings,
+ * and a rolled back write leaves the index as it was.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    public static final int MAX_SUGGESTIONS = 20;
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final InvertedIndex index = new InvertedIndex();
+    private final Map<Long, Long> popularity = new HashMap<>();
+    private final Map<Long, Suggestion> suggestions = new HashMap<>();
+    private final RadixTrie suggestionTrie = new RadixTrie(MAX_SUGGESTIONS, Comparator
+            .comparing((Long id) -> popularity.getOrDefault(id, 0L), Comparator.reverseOrder())
+            .thenComparing(Comparator.naturalOrder()));
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        lock.writeLock().lock();
+        try {
+            bookingRepository.countBookingsByItem()
+                    .forEach(count -> popularity.put(count.getItemId(), count.getBookings()));
+        } finally {
+            lock.writeLock().unlock();
+        }
+        Slice<Item> slice = itemRepository.findAllByAvailableTrue(PageRequest.of(0, LOAD_BATCH_SIZE));
+        int indexed = 0;
+        while (true) {
+            slice.forEach(this::put);
+            indexed += slice.getNumberOfElements();
+            if (!slice.hasNext()) {
+                break;
+            }
+            slice = itemRepository.findAllByAvailableTrue(slice.nextPageable());
+        }
+        log.info("Indexed {} items for search", indexed);
+    }
+
+    public List<Long> search(String text, int offset, int limit) {
+        List<String> terms = tokenize(text);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return index.search(terms, offset, limit);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} available items with a name word starting with the last word
+     * of {@code prefix}, the most booked first.
+     */
+    public List<ItemSuggestionDto> suggest(String prefix, int limit) {
+        List<String> terms = tokenize(prefix);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            return suggestionTrie.top(terms.get(terms.size() - 1), limit).stream()
+                    .map(id -> new ItemSuggestionDto(id, suggestions.get(id).name))
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void recordBooking(Long itemId) {
+        afterCommit(() -> changePopularity(itemId, 1));
+    }
+
+    /**
+     * Indexes the item as it is when the surrounding transaction commits.
+     */
+    public void index(Item item) {
+        afterCommit(() -> put(item));
+    }
+
+    static List<String> tokenize(String text) {
+        if (text == null) {
+            return new ArrayList<>();
+        }
+        return Arrays.stream(SEPARATORS.split(text.toLowerCase(Locale.ROOT)))
+                .filter(term -> !term.isEmpty())
+                .collect(Collectors.toList());
+    }
+
+    private void put(Item item) {
+        List<String> terms = new ArrayList<>();
+        if (Boolean.TRUE.equals(item.getAvailable())) {
+            terms.addAll(tokenize(item.getName()));
+            terms.addAll(tokenize(item.getDescription()));
+        }
+        lock.writeLock().lock();
+        try {
+            index.put(item.getId(), terms);
+            putSuggestion(item);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void putSuggestion(Item item) {
+        Suggestion previous = suggestions.remove(item.getId());
+        if (previous != null) {
+            previous.terms.forEach(term -> suggestionTrie.remove(term, item.getId()));
+        }
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        Suggestion suggestion = new Suggestion(item.getName(), new HashSet<>(tokenize(item.getName())));
+        suggestions.put(item.getId(), suggestion);
+        suggestion.terms.forEach(term -> suggestionTrie.add(term, item.getId()));
+    }
+
+    private void changePopularity(Long itemId, long delta) {
+        lock.writeLock().lock();
+        try {
+            popularity.merge(itemId, delta, Long::sum);
+            Suggestion suggestion = suggestions.get(itemId);
+            if (suggestion != null) {
+                suggestion.terms.forEach(suggestionTrie::refresh);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+
+    @RequiredArgsConstructor
+    private static class Suggestion {
+        private final String name;
+        private final Set<String> terms;
+    }
+}
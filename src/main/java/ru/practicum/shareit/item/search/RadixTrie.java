@@ -0,0 +1,176 @@
+package ru.practicum.shareit.item.search;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compressed prefix tree from terms to ids.
+ * <p>
+ * Every node caches the first {@code capacity} distinct ids of its subtree in {@code order},
+ * so {@link #top} is a walk down the prefix and a copy. Writes refresh the caches on the path
+ * they touch; when the order of an id changes, {@link #refresh} has to be called for each of
+ * its terms. Not thread-safe.
+ */
+public class RadixTrie {
+    private final int capacity;
+    private final Comparator<Long> order;
+    private final Node root = new Node("");
+
+    public RadixTrie(int capacity, Comparator<Long> order) {
+        this.capacity = capacity;
+        this.order = order;
+    }
+
+    public void add(String term, long id) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        String rest = term;
+        path.add(node);
+        while (!rest.isEmpty()) {
+            Node child = node.children.get(rest.charAt(0));
+            if (child == null) {
+                child = new Node(rest);
+                node.children.put(rest.charAt(0), child);
+            } else {
+                int common = commonPrefixLength(child.label, rest);
+                if (common < child.label.length()) {
+                    child = split(node, child, common);
+                }
+            }
+            rest = rest.substring(child.label.length());
+            node = child;
+            path.add(node);
+        }
+        node.ids.add(id);
+        refresh(path);
+    }
+
+    public boolean remove(String term, long id) {
+        List<Node> path = find(term);
+        if (path == null || !path.get(path.size() - 1).ids.remove(id)) {
+            return false;
+        }
+        for (int i = path.size() - 1; i > 0; i--) {
+            Node node = path.get(i);
+            Node parent = path.get(i - 1);
+            if (node.ids.isEmpty() && node.children.isEmpty()) {
+                parent.children.remove(node.label.charAt(0));
+                path.remove(i);
+            } else if (node.ids.isEmpty() && node.children.size() == 1) {
+                Node child = node.children.values().iterator().next();
+                Node merged = new Node(node.label + child.label);
+                merged.ids.addAll(child.ids);
+                merged.children.putAll(child.children);
+                parent.children.put(merged.label.charAt(0), merged);
+                path.set(i, merged);
+                if (i + 1 < path.size() && path.get(i + 1) == child) {
+                    path.remove(i + 1);
+                }
+            }
+        }
+        refresh(path);
+        return true;
+    }
+
+    /**
+     * Recomputes the cached ids on the path to {@code term}, after the order of its ids changed.
+     */
+    public void refresh(String term) {
+        List<Node> path = find(term);
+        if (path != null) {
+            refresh(path);
+        }
+    }
+
+    /**
+     * Returns up to {@code limit} (at most {@code capacity}) ids of terms starting with {@code prefix}.
+     */
+    public List<Long> top(String prefix, int limit) {
+        Node node = root;
+        String rest = prefix;
+        while (!rest.isEmpty()) {
+            Node child = node.children.get(rest.charAt(0));
+            if (child == null) {
+                return List.of();
+            }
+            if (rest.length() <= child.label.length()) {
+                if (!child.label.startsWith(rest)) {
+                    return List.of();
+                }
+                node = child;
+                break;
+            }
+            if (!rest.startsWith(child.label)) {
+                return List.of();
+            }
+            rest = rest.substring(child.label.length());
+            node = child;
+        }
+        return List.copyOf(node.top.subList(0, Math.min(limit, node.top.size())));
+    }
+
+    private List<Node> find(String term) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        String rest = term;
+        path.add(node);
+        while (!rest.isEmpty()) {
+            Node child = node.children.get(rest.charAt(0));
+            if (child == null || !rest.startsWith(child.label)) {
+                return null;
+            }
+            rest = rest.substring(child.label.length());
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+
+    private Node split(Node parent, Node child, int at) {
+        Node head = new Node(child.label.substring(0, at));
+        Node tail = new Node(child.label.substring(at));
+        tail.ids.addAll(child.ids);
+        tail.children.putAll(child.children);
+        tail.top = child.top;
+        head.children.put(tail.label.charAt(0), tail);
+        parent.children.put(head.label.charAt(0), head);
+        return head;
+    }
+
+    private void refresh(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            Node node = path.get(i);
+            Set<Long> candidates = new HashSet<>(node.ids);
+            node.children.values().forEach(child -> candidates.addAll(child.top));
+            List<Long> top = new ArrayList<>(candidates);
+            top.sort(order);
+            node.top = top.size() > capacity ? new ArrayList<>(top.subList(0, capacity)) : top;
+        }
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) {
+            i++;
+        }
+        return i;
+    }
+
+    private static class Node {
+        private final String label;
+        private final Set<Long> ids = new LinkedHashSet<>();
+        private final Map<Character, Node> children = new HashMap<>();
+        private List<Long> top = List.of();
+
+        Node(String label) {
+            this.label = label;
+        }
+    }
+}
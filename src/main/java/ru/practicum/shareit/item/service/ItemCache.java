@@ -0,0 +1,124 @@
+package ru.practicum.shareit.item.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.dto.ItemRespDto;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Bounded cache of assembled item details, so that reading a hot item does not load the item, its comments
+ * and, for the owner, its approved bookings on every request.
+ * <p>
+ * The view seen by everyone but the owner depends only on the item and its comments. The owner view also
+ * holds the last and next approved bookings, so it is cached separately: it is evicted when a booking of the
+ * item gets approved, and dropped on read once its next booking has started, since from then on that booking
+ * is the last one. Approvals and changes of the item or its comments all move the item version, and every
+ * entry keeps the version it was assembled from: it is only served for that version, and a put never
+ * replaces an entry of a later one, so a read that raced with a write cannot bring the old state back.
+ * Changed items are also evicted, now and when the surrounding transaction completes, to free the space
+ * early. Cached views are shared and must not be modified.
+ */
+@Component
+public class ItemCache {
+    private final Cache<Long, CachedItem> items;
+    private final Cache<Long, OwnerView> ownerViews;
+
+    public ItemCache(@Value("${shareit.item-cache.maximum-size:10000}") long maximumSize,
+                     @Value("${shareit.item-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.items = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+        this.ownerViews = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    /**
+     * Returns the item assembled from {@code version}, or {@code null} if it is not cached for that version.
+     */
+    public CachedItem get(Long itemId, long version) {
+        CachedItem cachedItem = items.getIfPresent(itemId);
+        return cachedItem == null || cachedItem.getVersion() != version ? null : cachedItem;
+    }
+
+    public void put(CachedItem cachedItem) {
+        items.asMap().merge(cachedItem.getView().getId(), cachedItem,
+                (cached, offered) -> offered.getVersion() < cached.getVersion() ? cached : offered);
+    }
+
+    /**
+     * Returns the owner view of the item assembled from {@code version} as it is at {@code now}, or {@code null}
+     * if it is not cached for that version or its next booking has started by then.
+     */
+    public ItemRespDto getOwnerView(Long itemId, long version, LocalDateTime now) {
+        OwnerView ownerView = ownerViews.getIfPresent(itemId);
+        if (ownerView == null || ownerView.getVersion() != version) {
+            return null;
+        }
+        if (ownerView.getValidUntil() != null && !now.isBefore(ownerView.getValidUntil())) {
+            ownerViews.asMap().remove(itemId, ownerView);
+            return null;
+        }
+        return ownerView.getView();
+    }
+
+    public void putOwnerView(long version, ItemRespDto view) {
+        LocalDateTime validUntil = view.getNextBooking() == null ? null : view.getNextBooking().getStart();
+        ownerViews.asMap().merge(view.getId(), new OwnerView(version, view, validUntil),
+                (cached, offered) -> offered.getVersion() < cached.getVersion() ? cached : offered);
+    }
+
+    public void evict(Long itemId) {
+        evictNowAndOnCompletion(() -> {
+            items.invalidate(itemId);
+            ownerViews.invalidate(itemId);
+        });
+    }
+
+    public void evictOwnerViews(Collection<Long> itemIds) {
+        List<Long> ids = List.copyOf(itemIds);
+        evictNowAndOnCompletion(() -> ownerViews.invalidateAll(ids));
+    }
+
+    private void evictNowAndOnCompletion(Runnable eviction) {
+        eviction.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    /**
+     * The view of an item shown to everyone but its owner, with the item version it was assembled from.
+     */
+    @Getter
+    @RequiredArgsConstructor
+    public static class CachedItem {
+        private final long version;
+        private final ItemRespDto view;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class OwnerView {
+        private final long version;
+        private final ItemRespDto view;
+        private final LocalDateTime validUntil;
+    }
+}
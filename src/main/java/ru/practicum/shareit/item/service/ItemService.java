@@ -1,11 +1,17 @@
 package ru.practicum.shareit.item.service;
 
+import ru.practicum.shareit.item.dto.CommentPageDto;
 import ru.practicum.shareit.item.dto.CommentReqDto;
 import ru.practicum.shareit.item.dto.CommentRespDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemReqDto;
 import ru.practicum.shareit.item.dto.ItemRespDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.dto.TaggedItem;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Predicate;
 
 public interface ItemService {
     ItemRespDto add(Long userId, ItemReqDto itemReqDto);
@@ -14,9 +20,19 @@ public interface ItemService {
 
     ItemRespDto findById(Long userId, Long itemId);
 
+    TaggedItem findTaggedById(Long userId, Long itemId, Predicate<String> notModified);
+
     List<ItemRespDto> findAll(Long userId, Integer from, Integer size);
 
+    List<ItemRespDto> findAllByIds(Long userId, List<Long> itemIds);
+
     List<ItemRespDto> search(Long userId, String text, Integer from, Integer size);
 
+    List<ItemSuggestionDto> suggest(Long userId, String prefix, Integer size);
+
+    List<FreeSlotDto> findAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to);
+
     CommentRespDto addComment(Long userId, CommentReqDto commentReqDto, Long itemId);
+
+    CommentPageDto findComments(Long userId, Long itemId, String cursor, Integer size);
 }
@@ -6,22 +6,32 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.BookingMapper;
-import ru.practicum.shareit.booking.dto.BookingRespDto;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.dto.ItemBookingSummaryView;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.dto.CommentPageDto;
 import ru.practicum.shareit.item.dto.CommentReqDto;
 import ru.practicum.shareit.item.dto.CommentRespDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemReqDto;
 import ru.practicum.shareit.item.dto.ItemRespDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.dto.ItemVersion;
+import ru.practicum.shareit.item.dto.TaggedItem;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentCursor;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserDto;
@@ -29,22 +39,41 @@ import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
 
 import static java.util.stream.Collectors.groupingBy;
+import static java.util.stream.Collectors.partitioningBy;
 import static java.util.stream.Collectors.toList;
+import static java.util.stream.Collectors.toMap;
+import static java.util.stream.Collectors.toSet;
 
 @Service
 @RequiredArgsConstructor
 @Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    /**
+     * Number of newest comments shown with an item; the rest are paged through {@link #findComments}.
+     */
+    public static final int EMBEDDED_COMMENTS = 10;
+
     private final ItemRepository itemRepository;
     private final CommentRepository commentRepository;
     private final BookingRepository bookingRepository;
+    private final ItemBookingSummaryRepository itemBookingSummaryRepository;
     private final ItemRequestRepository itemRequestRepository;
     private final UserService userService;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemCache itemCache;
 
     @Override
     @Transactional
@@ -54,8 +83,11 @@ public class ItemServiceImpl implements ItemService {
         item.setOwner(UserMapper.toUser(userDto));
         if (itemReqDto.getRequestId() != null) {
             item.setRequest(itemRequestRepository.getReferenceById(itemReqDto.getRequestId()));
+            itemRequestRepository.incrementVersion(itemReqDto.getRequestId());
         }
-        return ItemMapper.toItemRespDto(itemRepository.save(item));
+        item = itemRepository.save(item);
+        itemSearchIndex.index(item);
+        return ItemMapper.toItemRespDto(item);
     }
 
     @Override
@@ -79,71 +111,204 @@ public class ItemServiceImpl implements ItemService {
         if (name != null && !name.isBlank()) {
             item.setName(name);
         }
+        if (item.getRequest() != null) {
+            itemRequestRepository.incrementVersion(item.getRequest().getId());
+        }
+        itemSearchIndex.index(item);
+        itemCache.evict(itemId);
         return ItemMapper.toItemRespDto(item);
     }
 
     @Override
     @Transactional
     public ItemRespDto findById(Long userId, Long itemId) {
-        userService.findById(userId);
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new NotFoundException("No item with id=" + itemId + " found"));
-        ItemRespDto itemRespDto = ItemMapper.toItemRespDto(item);
-        itemRespDto.setComments(findAllItemComments(itemId));
-        if (!item.getOwner().getId().equals(userId)) {
-            return itemRespDto;
-        }
-        List<Booking> bookings = bookingRepository.findAllByItemAndStatusOrderByStartAsc(item, BookingStatus.APPROVED);
-        List<BookingRespDto> bookingRespDtoList = bookings.stream()
-                .map(BookingMapper::toBookingRespDto)
-                .collect(toList());
+        return findTaggedById(userId, itemId, eTag -> false).getItem();
+    }
 
-        itemRespDto.setLastBooking(getLastBooking(bookingRespDtoList, LocalDateTime.now()));
-        itemRespDto.setNextBooking(getNextBooking(bookingRespDtoList, LocalDateTime.now()));
-        return itemRespDto;
+    /**
+     * Reads through {@link ItemCache}: the view without bookings is assembled once per version of the item, which
+     * moves with changes of the item and its comments, the owner view once per version or start of the next
+     * booking. The version is read before the item, its comments and bookings, so a view is never older than
+     * the version it is cached under.
+     * <p>
+     * The entity tag is the version of the view returned. The owner view also changes when the next approved
+     * booking starts, so its tag adds the start of the last one. Names of other users shown in the item are not
+     * part of its version. Once {@code notModified} accepts the tag, no view is returned; for other users than
+     * the owner this is decided from the version alone, before any view is looked up or assembled.
+     */
+    @Override
+    @Transactional
+    public TaggedItem findTaggedById(Long userId, Long itemId, Predicate<String> notModified) {
+        userService.checkExists(userId);
+        ItemVersion itemVersion = itemRepository.findVersionById(itemId)
+                .orElseThrow(() -> new NotFoundException("No item with id=" + itemId + " found"));
+        long version = itemVersion.getVersion();
+        boolean owner = itemVersion.getOwnerId().equals(userId);
+        if (!owner && notModified.test(String.valueOf(version))) {
+            return new TaggedItem(String.valueOf(version), null);
+        }
+        ItemCache.CachedItem cachedItem = itemCache.get(itemId, version);
+        if (cachedItem == null) {
+            Item item = itemRepository.findById(itemId)
+                    .orElseThrow(() -> new NotFoundException("No item with id=" + itemId + " found"));
+            ItemRespDto itemRespDto = ItemMapper.toItemRespDto(item);
+            itemRespDto.setComments(commentRepository.findAllByItemId(itemId, PageRequest.of(0, EMBEDDED_COMMENTS))
+                    .stream()
+                    .map(CommentMapper::toCommentRespDto)
+                    .collect(toList()));
+            itemRespDto.setCommentCount(item.getCommentCount());
+            cachedItem = new ItemCache.CachedItem(version, itemRespDto);
+            itemCache.put(cachedItem);
+        }
+        if (!owner) {
+            return new TaggedItem(String.valueOf(version), cachedItem.getView());
+        }
+        LocalDateTime now = LocalDateTime.now();
+        ItemRespDto ownerView = itemCache.getOwnerView(itemId, version, now);
+        if (ownerView == null) {
+            Map<Boolean, Map<Long, ItemBookingView>> bookings = findLastAndNextBookings(List.of(itemId), now);
+            ItemRespDto view = cachedItem.getView();
+            ItemRespDto bookingItem = ItemMapper.toItemRespDto(view, null, null, null);
+            ownerView = ItemMapper.toItemRespDto(
+                    view,
+                    BookingMapper.toBookingRespDto(bookings.get(false).get(itemId), bookingItem),
+                    view.getComments(),
+                    BookingMapper.toBookingRespDto(bookings.get(true).get(itemId), bookingItem));
+            itemCache.putOwnerView(version, ownerView);
+        }
+        String lastStart = ownerView.getLastBooking() == null ? "" : "-" + ownerView.getLastBooking().getStart();
+        String eTag = version + "-owner" + lastStart;
+        return new TaggedItem(eTag, notModified.test(eTag) ? null : ownerView);
     }
 
     @Override
     @Transactional
     public List<ItemRespDto> findAll(Long userId, Integer from, Integer size) {
-        UserDto owner = userService.findById(userId);
+        userService.checkExists(userId);
         List<Item> itemList = itemRepository.findAllByOwnerId(userId, getPageable(from, size));
         List<Long> itemIdList = itemList.stream()
                 .map(Item::getId)
                 .collect(toList());
 
-        Map<Long, List<CommentRespDto>> comments = commentRepository.findAllByItemIdIn(itemIdList).stream()
-                .map(CommentMapper::toCommentRespDto)
-                .collect(groupingBy(CommentRespDto::getItemId, toList()));
+        Map<Long, List<CommentRespDto>> comments = findNewestComments(itemIdList);
 
-        Map<Long, List<BookingRespDto>> bookings = bookingRepository
-                .findAllByItemInAndStatusOrderByStartAsc(itemList, BookingStatus.APPROVED).stream()
-                .map(BookingMapper::toBookingRespDto)
-                .collect(groupingBy(BookingRespDto::getItemId, toList()));
+        LocalDateTime now = LocalDateTime.now();
+        Map<Boolean, Map<Long, ItemBookingView>> bookings = findLastAndNextBookings(itemIdList, now);
 
         return itemList.stream()
-                .map(item -> ItemMapper.toItemRespDto(
-                        item,
-                        getLastBooking(bookings.get(item.getId()), LocalDateTime.now()),
-                        comments.get(item.getId()),
-                        getNextBooking(bookings.get(item.getId()), LocalDateTime.now())
-                ))
+                .map(item -> {
+                    ItemRespDto bookingItem = ItemMapper.toItemRespDto(item);
+                    return ItemMapper.toItemRespDto(
+                            item,
+                            BookingMapper.toBookingRespDto(bookings.get(false).get(item.getId()), bookingItem),
+                            comments.get(item.getId()),
+                            BookingMapper.toBookingRespDto(bookings.get(true).get(item.getId()), bookingItem));
+                })
+                .collect(toList());
+    }
+
+    /**
+     * Returns the items found among {@code itemIds} in the order asked for, skipping unknown ids, each as
+     * {@link #findById} would show it to the user. The items, their comments and the last and next bookings
+     * of the user's own items are loaded with one query each, however many ids are asked for.
+     */
+    @Override
+    public List<ItemRespDto> findAllByIds(Long userId, List<Long> itemIds) {
+        userService.checkExists(userId);
+        Map<Long, Item> items = itemRepository.findAllWithOwnerByIdIn(itemIds).stream()
+                .collect(toMap(Item::getId, Function.identity()));
+        if (items.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, List<CommentRespDto>> comments = findNewestComments(items.keySet());
+        List<Long> ownItemIds = items.values().stream()
+                .filter(item -> item.getOwner().getId().equals(userId))
+                .map(Item::getId)
+                .collect(toList());
+        Map<Boolean, Map<Long, ItemBookingView>> bookings = findLastAndNextBookings(ownItemIds, LocalDateTime.now());
+
+        return itemIds.stream()
+                .distinct()
+                .map(items::get)
+                .filter(Objects::nonNull)
+                .map(item -> {
+                    ItemRespDto itemRespDto = ItemMapper.toItemRespDto(item);
+                    itemRespDto.setComments(comments.getOrDefault(item.getId(), Collections.emptyList()));
+                    itemRespDto.setCommentCount(item.getCommentCount());
+                    if (item.getOwner().getId().equals(userId)) {
+                        ItemRespDto bookingItem = ItemMapper.toItemRespDto(item);
+                        itemRespDto.setLastBooking(BookingMapper.toBookingRespDto(
+                                bookings.get(false).get(item.getId()), bookingItem));
+                        itemRespDto.setNextBooking(BookingMapper.toBookingRespDto(
+                                bookings.get(true).get(item.getId()), bookingItem));
+                    }
+                    return itemRespDto;
+                })
                 .collect(toList());
     }
 
     @Override
     @Transactional
     public List<ItemRespDto> search(Long userId, String text, Integer from, Integer size) {
-        userService.findById(userId);
+        userService.checkExists(userId);
         if (text.isBlank()) {
             return Collections.emptyList();
         }
-        List<Item> itemList = itemRepository.search(text, getPageable(from, size));
-        return itemList.stream()
+        List<Long> itemIds = itemSearchIndex.search(text, from / size * size, size);
+        if (itemIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, Item> items = itemRepository.findAllById(itemIds).stream()
+                .collect(toMap(Item::getId, Function.identity()));
+        return itemIds.stream()
+                .map(items::get)
+                .filter(item -> item != null && Boolean.TRUE.equals(item.getAvailable()))
                 .map(ItemMapper::toItemRespDto)
                 .collect(toList());
     }
 
+    @Override
+    public List<ItemSuggestionDto> suggest(Long userId, String prefix, Integer size) {
+        userService.checkExists(userId);
+        return itemSearchIndex.suggest(prefix, size);
+    }
+
+    /**
+     * Sweeps the item's blocking bookings in the window once, in start order: whatever lies between the
+     * latest end seen so far and the next start is free. Blocking are the WAITING and APPROVED ones, the
+     * same {@link BookingIntervalIndex#BLOCKING_STATUSES} that a new booking is checked against. Bookings are streamed from the database, so memory
+     * holds only the free intervals found, however long the item's booking history is.
+     */
+    @Override
+    public List<FreeSlotDto> findAvailability(Long userId, Long itemId, LocalDateTime from, LocalDateTime to) {
+        userService.checkExists(userId);
+        if (!from.isBefore(to)) {
+            throw new ValidationException("Availability window must end after it starts");
+        }
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("No item with id=" + itemId + " found");
+        }
+        List<FreeSlotDto> freeSlots = new ArrayList<>();
+        LocalDateTime freeFrom = from;
+        try (Stream<BookingInterval> bookings = bookingRepository
+                .streamIntervalsByItemIdAndStatusIn(itemId, BookingIntervalIndex.BLOCKING_STATUSES, from, to)) {
+            Iterator<BookingInterval> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                BookingInterval booking = iterator.next();
+                if (booking.getStart().isAfter(freeFrom)) {
+                    freeSlots.add(new FreeSlotDto(freeFrom, booking.getStart()));
+                }
+                if (booking.getEnd().isAfter(freeFrom)) {
+                    freeFrom = booking.getEnd();
+                }
+            }
+        }
+        if (freeFrom.isBefore(to)) {
+            freeSlots.add(new FreeSlotDto(freeFrom, to));
+        }
+        return freeSlots;
+    }
+
     @Override
     @Transactional
     public CommentRespDto addComment(Long userId, CommentReqDto commentReqDto, Long itemId) {
@@ -156,40 +321,67 @@ public class ItemServiceImpl implements ItemService {
             throw new ValidationException("User with id=" + userId + " has no bookings for item with id=" + itemId);
         }
 
-        return CommentMapper.toCommentRespDto(commentRepository
-                .save(CommentMapper.toComment(commentReqDto, item, user)));
+        Comment comment = commentRepository.save(CommentMapper.toComment(commentReqDto, item, user));
+        itemRepository.incrementCommentCount(itemId);
+        itemCache.evict(itemId);
+        return CommentMapper.toCommentRespDto(comment);
     }
 
-    public List<CommentRespDto> findAllItemComments(Long itemId) {
-        List<Comment> comments = commentRepository.findAllByItemId(itemId);
-
-        return comments.stream()
-                .map(CommentMapper::toCommentRespDto)
-                .collect(toList());
+    /**
+     * Pages through the comments of the item newest first. Each page seeks past the last comment of the
+     * previous one, so reading deep into a long history costs no more than reading its first page.
+     */
+    @Override
+    public CommentPageDto findComments(Long userId, Long itemId, String cursor, Integer size) {
+        CommentCursor commentCursor = CommentCursor.decode(cursor);
+        userService.checkExists(userId);
+        if (!itemRepository.existsById(itemId)) {
+            throw new NotFoundException("No item with id=" + itemId + " found");
+        }
+        Pageable pageable = PageRequest.of(0, size);
+        List<Comment> comments = commentCursor == null
+                ? commentRepository.findAllByItemId(itemId, pageable)
+                : commentRepository.findAllByItemIdAfter(itemId, commentCursor.getCreated(), commentCursor.getId(),
+                pageable);
+        return CommentMapper.toCommentPageDto(comments, size);
     }
 
-    private BookingRespDto getLastBooking(List<BookingRespDto> bookings, LocalDateTime time) {
-        if (bookings == null || bookings.isEmpty()) {
-            return null;
+    /**
+     * Returns the {@link #EMBEDDED_COMMENTS} newest comments of each of the given items, newest first,
+     * keyed by item id. Items without comments have no entry.
+     */
+    private Map<Long, List<CommentRespDto>> findNewestComments(Collection<Long> itemIds) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyMap();
         }
-
-        return bookings
-                .stream()
-                .filter(bookingDTO -> !bookingDTO.getStart().isAfter(time))
-                .reduce((booking1, booking2) -> booking1.getStart().isAfter(booking2.getStart()) ? booking1 : booking2)
-                .orElse(null);
+        return commentRepository.findNewestByItemIdIn(itemIds, EMBEDDED_COMMENTS).stream()
+                .map(CommentMapper::toCommentRespDto)
+                .collect(groupingBy(CommentRespDto::getItemId, toList()));
     }
 
-    private BookingRespDto getNextBooking(List<BookingRespDto> bookings, LocalDateTime time) {
-        if (bookings == null || bookings.isEmpty()) {
-            return null;
+    /**
+     * Splits the last and next approved bookings of the given items by whether they start after {@code now},
+     * each side keyed by item id. They are read from the item booking summaries; items whose recorded next
+     * booking has started since their summary was refreshed are looked up in the bookings instead.
+     */
+    private Map<Boolean, Map<Long, ItemBookingView>> findLastAndNextBookings(List<Long> itemIds, LocalDateTime now) {
+        List<ItemBookingView> bookings = new ArrayList<>();
+        if (!itemIds.isEmpty()) {
+            List<ItemBookingSummaryView> summaryBookings = itemBookingSummaryRepository.findBookingsByItemIdIn(itemIds);
+            Set<Long> staleItemIds = summaryBookings.stream()
+                    .filter(booking -> booking.getNext() && !booking.getStart().isAfter(now))
+                    .map(ItemBookingView::getItemId)
+                    .collect(toSet());
+            summaryBookings.stream()
+                    .filter(booking -> !staleItemIds.contains(booking.getItemId()))
+                    .forEach(bookings::add);
+            if (!staleItemIds.isEmpty()) {
+                bookings.addAll(bookingRepository.findLastAndNextBookings(staleItemIds, now));
+            }
         }
-
-        return bookings
-                .stream()
-                .filter(bookingDTO -> bookingDTO.getStart().isAfter(time))
-                .findFirst()
-                .orElse(null);
+        return bookings.stream()
+                .collect(partitioningBy(booking -> booking.getStart().isAfter(now),
+                        toMap(ItemBookingView::getItemId, Function.identity())));
     }
 
     private Pageable getPageable(Integer from, Integer size) {
@@ -0,0 +1,32 @@
+package ru.practicum.shareit.metrics;
+
+import net.ttddyy.dsproxy.proxy.NanoTimeStopwatchFactory;
+import net.ttddyy.dsproxy.proxy.ProxyConfig;
+import net.ttddyy.dsproxy.support.ProxyDataSource;
+import net.ttddyy.dsproxy.support.ProxyDataSourceBuilder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+
+import javax.sql.DataSource;
+
+/**
+ * Wraps the application {@link DataSource} so that every executed statement, and the time
+ * it took, is added to the {@link SqlStatistics} of the calling thread.
+ */
+public class DataSourceProxyPostProcessor implements BeanPostProcessor {
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (!(bean instanceof DataSource) || bean instanceof ProxyDataSource) {
+            return bean;
+        }
+        ProxyDataSource proxyDataSource = ProxyDataSourceBuilder.create((DataSource) bean)
+                .name(beanName)
+                .afterQuery((execInfo, queryInfoList) -> SqlStatistics.record(execInfo.getElapsedTime()))
+                .build();
+        // the builder only offers the millisecond stopwatch, which rounds fast statements down to zero
+        proxyDataSource.setProxyConfig(ProxyConfig.Builder.from(proxyDataSource.getProxyConfig())
+                .stopwatchFactory(new NanoTimeStopwatchFactory())
+                .build());
+        return proxyDataSource;
+    }
+}
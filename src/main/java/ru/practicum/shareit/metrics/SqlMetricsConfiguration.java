@@ -0,0 +1,21 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(SqlMetricsProperties.class)
+public class SqlMetricsConfiguration {
+
+    @Bean
+    public static DataSourceProxyPostProcessor dataSourceProxyPostProcessor() {
+        return new DataSourceProxyPostProcessor();
+    }
+
+    @Bean
+    public SqlMetricsFilter sqlMetricsFilter(MeterRegistry meterRegistry, SqlMetricsProperties properties) {
+        return new SqlMetricsFilter(meterRegistry, properties);
+    }
+}
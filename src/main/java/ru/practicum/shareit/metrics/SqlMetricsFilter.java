@@ -0,0 +1,75 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records, per endpoint, how many SQL statements an HTTP request ran and how long it spent in JDBC:
+ * <ul>
+ *     <li>{@code shareit.http.sql.statements} - distribution of statement counts;</li>
+ *     <li>{@code shareit.http.sql.time} - timer of JDBC time;</li>
+ *     <li>{@code shareit.http.sql.over.budget} - requests that ran more statements than
+ *     {@code shareit.sql-metrics.statement-budget}.</li>
+ * </ul>
+ * Endpoints are tagged by HTTP method and URI template, as in {@code http.server.requests}.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class SqlMetricsFilter extends OncePerRequestFilter {
+    private final MeterRegistry meterRegistry;
+    private final SqlMetricsProperties properties;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        SqlStatistics.start();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            record(request, SqlStatistics.stop());
+        }
+    }
+
+    private void record(HttpServletRequest request, SqlStatistics statistics) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        String uri = pattern == null ? "UNKNOWN" : pattern.toString();
+        Tags tags = Tags.of("method", request.getMethod(), "uri", uri);
+
+        DistributionSummary.builder("shareit.http.sql.statements")
+                .description("SQL statements run by an HTTP request")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statistics.getStatements());
+        Timer.builder("shareit.http.sql.time")
+                .description("Time an HTTP request spent in JDBC")
+                .tags(tags)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(statistics.getJdbcNanos(), TimeUnit.NANOSECONDS);
+
+        if (statistics.getStatements() > properties.getStatementBudget()) {
+            Counter.builder("shareit.http.sql.over.budget")
+                    .description("HTTP requests that ran more SQL statements than the budget")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .increment();
+            log.warn("{} {} ran {} SQL statements, budget is {}", request.getMethod(), request.getRequestURI(),
+                    statistics.getStatements(), properties.getStatementBudget());
+        }
+    }
+}
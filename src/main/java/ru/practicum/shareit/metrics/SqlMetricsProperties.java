@@ -0,0 +1,15 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "shareit.sql-metrics")
+public class SqlMetricsProperties {
+    /**
+     * Statements a single HTTP request may run before it is logged and counted as over budget.
+     */
+    private int statementBudget = 10;
+}
@@ -0,0 +1,36 @@
+package ru.practicum.shareit.metrics;
+
+import lombok.Getter;
+
+/**
+ * SQL statements executed and JDBC time spent by the current thread since {@link #start}.
+ */
+@Getter
+public class SqlStatistics {
+    private static final ThreadLocal<SqlStatistics> CURRENT = new ThreadLocal<>();
+
+    private int statements;
+    private long jdbcNanos;
+
+    public static void start() {
+        CURRENT.set(new SqlStatistics());
+    }
+
+    public static SqlStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static SqlStatistics stop() {
+        SqlStatistics statistics = CURRENT.get();
+        CURRENT.remove();
+        return statistics;
+    }
+
+    static void record(long elapsedNanos) {
+        SqlStatistics statistics = CURRENT.get();
+        if (statistics != null) {
+            statistics.statements++;
+            statistics.jdbcNanos += elapsedNanos;
+        }
+    }
+}
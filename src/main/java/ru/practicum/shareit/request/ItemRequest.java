@@ -18,7 +18,8 @@ import java.util.List;
 @Table(name = "requests", schema = "public")
 public class ItemRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "requests_seq")
+    @SequenceGenerator(name = "requests_seq", sequenceName = "requests_seq", allocationSize = 50)
     private Long id;
     @Column(name = "description", nullable = false)
     private String description;
@@ -31,4 +32,8 @@ public class ItemRequest {
     @OneToMany
     @JoinColumn(name = "request_id")
     private List<Item> items = new ArrayList<>();
+    @Version
+    @Column(name = "version", nullable = false)
+    @EqualsAndHashCode.Exclude
+    private long version;
 }
\ No newline at end of file
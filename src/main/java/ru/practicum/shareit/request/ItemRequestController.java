@@ -4,6 +4,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import ru.practicum.shareit.request.dto.ItemRequestReqDto;
 import ru.practicum.shareit.request.dto.ItemRequestRespDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
@@ -45,7 +46,12 @@ public class ItemRequestController {
 
     @GetMapping("/{requestId}")
     public ItemRequestRespDto findRequestById(@RequestHeader(USER_HEADER) Long userId,
-                                              @PathVariable Long requestId) {
+                                              @PathVariable Long requestId,
+                                              WebRequest request) {
+        String eTag = itemRequestService.findETag(userId, requestId);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         return itemRequestService.findRequestById(userId, requestId);
     }
 }
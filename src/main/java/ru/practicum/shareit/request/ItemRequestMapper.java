@@ -3,6 +3,7 @@ package ru.practicum.shareit.request;
 import lombok.experimental.UtilityClass;
 import ru.practicum.shareit.item.dto.ItemRespDto;
 import ru.practicum.shareit.item.mapper.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestReqDto;
 import ru.practicum.shareit.request.dto.ItemRequestRespDto;
 import ru.practicum.shareit.user.User;
@@ -28,10 +29,14 @@ public class ItemRequestMapper {
     }
 
     public ItemRequestRespDto toItemRequestRespDto(ItemRequest itemRequest) {
+        return toItemRequestRespDto(itemRequest, itemRequest.getItems());
+    }
+
+    public ItemRequestRespDto toItemRequestRespDto(ItemRequest itemRequest, List<Item> items) {
         List<ItemRespDto> itemRespDtoList = new ArrayList<>();
 
-        if (!Objects.isNull(itemRequest.getItems())) {
-            itemRespDtoList = itemRequest.getItems().stream()
+        if (!Objects.isNull(items)) {
+            itemRespDtoList = items.stream()
                     .map(ItemMapper::toItemRespDto)
                     .collect(Collectors.toList());
         }
@@ -1,14 +1,33 @@
 package ru.practicum.shareit.request.repository;
 
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.ItemRequest;
 
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    List<ItemRequest> findAllByRequestorId(Long userId);
+    @EntityGraph(attributePaths = "requestor")
+    @Query("select r from ItemRequest as r where r.requestor.id = :userId")
+    List<ItemRequest> findAllByRequestorId(@Param("userId") Long userId);
 
-    List<ItemRequest> findAllByRequestorIdNotOrderByCreatedDesc(Long userId, Pageable pageable);
+    @EntityGraph(attributePaths = "requestor")
+    @Query("select r from ItemRequest as r where r.requestor.id <> :userId order by r.created desc")
+    List<ItemRequest> findAllByRequestorIdNotOrderByCreatedDesc(@Param("userId") Long userId, Pageable pageable);
+
+    @Query("select r.version from ItemRequest as r where r.id = :requestId")
+    Optional<Long> findVersionById(@Param("requestId") Long requestId);
+
+    /**
+     * Bumps the version of a request whose answering items changed.
+     */
+    @Modifying
+    @Query("update ItemRequest as r set r.version = r.version + 1 where r.id = :requestId")
+    int incrementVersion(@Param("requestId") Long requestId);
 }
@@ -14,4 +14,6 @@ public interface ItemRequestService {
     List<ItemRequestRespDto> findAllRequests(Long userId, Integer from, Integer size);
 
     ItemRequestRespDto findRequestById(Long userId, Long requestId);
+
+    String findETag(Long userId, Long requestId);
 }
@@ -6,6 +6,8 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.ItemRequest;
 import ru.practicum.shareit.request.ItemRequestMapper;
 import ru.practicum.shareit.request.dto.ItemRequestReqDto;
@@ -15,15 +17,19 @@ import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final UserService userService;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
 
     @Override
     @Transactional
@@ -35,33 +41,55 @@ public class ItemRequestServiceImpl implements ItemRequestService {
     }
 
     @Override
-    @Transactional(readOnly = true)
     public List<ItemRequestRespDto> findUserRequests(Long userId) {
-        UserMapper.toUser(userService.findById(userId));
-        List<ItemRequest> itemRequestList = itemRequestRepository.findAllByRequestorId(userId);
-        return itemRequestList.stream()
-                .map(ItemRequestMapper::toItemRequestRespDto)
-                .collect(Collectors.toList());
+        userService.checkExists(userId);
+        return toItemRequestRespDtos(itemRequestRepository.findAllByRequestorId(userId));
     }
 
     @Override
     public List<ItemRequestRespDto> findAllRequests(Long userId, Integer from, Integer size) {
-        UserMapper.toUser(userService.findById(userId));
-        List<ItemRequest> itemRequestList = itemRequestRepository
-                .findAllByRequestorIdNotOrderByCreatedDesc(userId, getPageable(from, size));
-        return itemRequestList.stream()
-                .map(ItemRequestMapper::toItemRequestRespDto)
-                .collect(Collectors.toList());
+        userService.checkExists(userId);
+        return toItemRequestRespDtos(itemRequestRepository
+                .findAllByRequestorIdNotOrderByCreatedDesc(userId, getPageable(from, size)));
     }
 
     @Override
     public ItemRequestRespDto findRequestById(Long userId, Long requestId) {
-        userService.findById(userId);
+        userService.checkExists(userId);
         Optional<ItemRequest> request = itemRequestRepository.findById(requestId);
         if (request.isEmpty()) {
             throw new NotFoundException("No Item Request with id=" + requestId + " found");
         }
-        return ItemRequestMapper.toItemRequestRespDto(request.get());
+        return toItemRequestRespDtos(List.of(request.get())).get(0);
+    }
+
+    /**
+     * Returns the entity tag of the request. Adding or changing an item that answers the request moves its version.
+     */
+    @Override
+    public String findETag(Long userId, Long requestId) {
+        userService.checkExists(userId);
+        return itemRequestRepository.findVersionById(requestId)
+                .map(String::valueOf)
+                .orElseThrow(() -> new NotFoundException("No Item Request with id=" + requestId + " found"));
+    }
+
+    /**
+     * Maps a page of requests, loading the items answering all of them with one query.
+     */
+    private List<ItemRequestRespDto> toItemRequestRespDtos(List<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        List<Long> requestIds = itemRequests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toList());
+        Map<Long, List<Item>> items = itemRepository.findAllByRequestIdIn(requestIds).stream()
+                .collect(Collectors.groupingBy(item -> item.getRequest().getId()));
+        return itemRequests.stream()
+                .map(itemRequest -> ItemRequestMapper.toItemRequestRespDto(itemRequest,
+                        items.getOrDefault(itemRequest.getId(), Collections.emptyList())))
+                .collect(Collectors.toList());
     }
 
     private Pageable getPageable(Integer from, Integer size) {
@@ -0,0 +1,72 @@
+package ru.practicum.shareit.user.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.user.UserDto;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of existing users, so that validating the {@code X-Sharer-User-Id} header
+ * does not query the users table on every request.
+ * <p>
+ * Only users that exist are cached. An evicted user is evicted again when the surrounding
+ * transaction completes, so a read that raced with the write cannot keep the old state.
+ * Every eviction also advances the generation of the cache, and a user read before that is not
+ * put, so a read that finishes after the write committed cannot bring the old state back.
+ */
+@Component
+public class UserCache {
+    private final Cache<Long, UserDto> users;
+    private final AtomicLong generation = new AtomicLong();
+
+    public UserCache(@Value("${shareit.user-cache.maximum-size:10000}") long maximumSize,
+                     @Value("${shareit.user-cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .build();
+    }
+
+    public UserDto get(Long id) {
+        return users.getIfPresent(id);
+    }
+
+    /**
+     * Returns the current generation, to be taken before reading a user that is then {@link #put}.
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Caches the user unless a user was evicted since {@code readGeneration}. The check and the put are
+     * atomic with respect to evictions of the same user, which advance the generation before invalidating.
+     */
+    public void put(UserDto userDto, long readGeneration) {
+        users.asMap().compute(userDto.getId(),
+                (id, cached) -> generation.get() == readGeneration ? userDto : cached);
+    }
+
+    public void evict(Long id) {
+        invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    invalidate(id);
+                }
+            });
+        }
+    }
+
+    private void invalidate(Long id) {
+        generation.incrementAndGet();
+        users.invalidate(id);
+    }
+}
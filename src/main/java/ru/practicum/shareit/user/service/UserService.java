@@ -10,6 +10,16 @@ public interface UserService {
 
     UserDto findById(Long id);
 
+    /**
+     * Tells whether the user exists, answering from the user cache when it can.
+     */
+    boolean existsCached(Long id);
+
+    /**
+     * Throws {@link ru.practicum.shareit.exception.NotFoundException} unless the user exists.
+     */
+    void checkExists(Long id);
+
     List<UserDto> findAll();
 
     UserDto update(Long id, UserDto userDto);
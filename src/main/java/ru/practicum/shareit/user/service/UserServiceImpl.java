@@ -17,21 +17,38 @@ import java.util.stream.Collectors;
 @Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final UserCache userCache;
 
     @Override
     @Transactional
     public UserDto add(UserDto userDto) {
         User user = UserMapper.toUser(userDto);
         userRepository.save(user);
+        // A rolled back insert must not stay cached by a read later in the same transaction.
+        userCache.evict(user.getId());
         return UserMapper.toUserDto(user);
     }
 
     @Override
     @Transactional
     public UserDto findById(Long id) {
-        User user = userRepository.findById(id)
-                .orElseThrow(() -> new NotFoundException("No user with id=" + id + " found"));
-        return UserMapper.toUserDto(user);
+        UserDto userDto = findCached(id);
+        if (userDto == null) {
+            throw new NotFoundException("No user with id=" + id + " found");
+        }
+        return new UserDto(userDto.getId(), userDto.getName(), userDto.getEmail());
+    }
+
+    @Override
+    public boolean existsCached(Long id) {
+        return findCached(id) != null;
+    }
+
+    @Override
+    public void checkExists(Long id) {
+        if (!existsCached(id)) {
+            throw new NotFoundException("No user with id=" + id + " found");
+        }
     }
 
     @Override
@@ -57,6 +74,7 @@ public class UserServiceImpl implements UserService {
         if (email != null && !email.isBlank()) {
             user.setEmail(email);
         }
+        userCache.evict(id);
         return UserMapper.toUserDto(user);
     }
 
@@ -64,5 +82,20 @@ public class UserServiceImpl implements UserService {
     @Transactional
     public void delete(Long id) {
         userRepository.deleteById(id);
+        userCache.evict(id);
+    }
+
+    private UserDto findCached(Long id) {
+        UserDto userDto = userCache.get(id);
+        if (userDto == null) {
+            long generation = userCache.generation();
+            userDto = userRepository.findById(id)
+                    .map(UserMapper::toUserDto)
+                    .orElse(null);
+            if (userDto != null) {
+                userCache.put(userDto, generation);
+            }
+        }
+        return userDto;
     }
 }
@@ -1,5 +1,3 @@
-DROP TABLE IF EXISTS requests, comments, bookings, items, users;
-
 CREATE TABLE IF NOT EXISTS users
 (
     id    BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
@@ -51,3 +49,7 @@ CREATE TABLE IF NOT EXISTS comments
     CONSTRAINT fk_comments_item_id FOREIGN KEY (item_id) REFERENCES items (id),
     CONSTRAINT fk_comments_author_id FOREIGN KEY (author_id) REFERENCES users (id)
 );
+
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_start ON bookings (booker_id, start_date, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_start ON bookings (item_id, start_date, id);
+CREATE INDEX IF NOT EXISTS idx_items_owner ON items (owner_id);
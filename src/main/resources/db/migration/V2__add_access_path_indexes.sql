@@ -0,0 +1,11 @@
+-- last and next approved booking of an item, and the active bookings checked on availability changes
+CREATE INDEX IF NOT EXISTS idx_bookings_item_status_start ON bookings (item_id, status, start_date);
+-- finished approved bookings of a booker for an item, checked before a comment is accepted
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_item_status_end ON bookings (booker_id, item_id, status, end_date);
+-- comments of the items on a page
+CREATE INDEX IF NOT EXISTS idx_comments_item_created ON comments (item_id, created);
+-- items answering a page of requests
+CREATE INDEX IF NOT EXISTS idx_items_request ON items (request_id);
+-- own requests, and everyone else's newest first
+CREATE INDEX IF NOT EXISTS idx_requests_requestor_created ON requests (requestor_id, created);
+CREATE INDEX IF NOT EXISTS idx_requests_created ON requests (created);
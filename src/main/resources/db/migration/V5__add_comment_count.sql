@@ -0,0 +1,6 @@
+-- number of comments of an item, kept up to date as comments are added, so item details need not count them
+ALTER TABLE items ADD COLUMN IF NOT EXISTS comment_count BIGINT DEFAULT 0 NOT NULL;
+UPDATE items AS i SET comment_count = (SELECT COUNT(*) FROM comments AS c WHERE c.item_id = i.id);
+-- newest comments of an item first, and the keyset pages after them
+DROP INDEX IF EXISTS idx_comments_item_created;
+CREATE INDEX IF NOT EXISTS idx_comments_item_created_id ON comments (item_id, created, id);
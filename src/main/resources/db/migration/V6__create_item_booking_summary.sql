@@ -0,0 +1,33 @@
+-- last and next approved booking of every item that has one, refreshed when a booking is approved and
+-- by the sweeper once the next booking has started
+CREATE TABLE IF NOT EXISTS item_booking_summary
+(
+    item_id         BIGINT PRIMARY KEY,
+    last_booking_id BIGINT,
+    next_booking_id BIGINT,
+    approved_count  BIGINT DEFAULT 0 NOT NULL,
+    last_booked_at  TIMESTAMP WITHOUT TIME ZONE,
+    next_start_date TIMESTAMP WITHOUT TIME ZONE,
+    CONSTRAINT fk_item_booking_summary_item_id FOREIGN KEY (item_id) REFERENCES items (id),
+    CONSTRAINT fk_item_booking_summary_last_booking_id FOREIGN KEY (last_booking_id) REFERENCES bookings (id),
+    CONSTRAINT fk_item_booking_summary_next_booking_id FOREIGN KEY (next_booking_id) REFERENCES bookings (id)
+);
+-- summaries whose next booking has started, picked up by the sweeper
+CREATE INDEX IF NOT EXISTS idx_item_booking_summary_next_start ON item_booking_summary (next_start_date);
+
+INSERT INTO item_booking_summary (item_id, last_booking_id, next_booking_id, approved_count, last_booked_at,
+                                  next_start_date)
+SELECT i.id,
+       (SELECT b.id FROM bookings AS b
+        WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.start_date <= LOCALTIMESTAMP
+        ORDER BY b.start_date DESC, b.id DESC LIMIT 1),
+       (SELECT b.id FROM bookings AS b
+        WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.start_date > LOCALTIMESTAMP
+        ORDER BY b.start_date, b.id LIMIT 1),
+       (SELECT COUNT(*) FROM bookings AS b WHERE b.item_id = i.id AND b.status = 'APPROVED'),
+       (SELECT MAX(b.start_date) FROM bookings AS b
+        WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.start_date <= LOCALTIMESTAMP),
+       (SELECT MIN(b.start_date) FROM bookings AS b
+        WHERE b.item_id = i.id AND b.status = 'APPROVED' AND b.start_date > LOCALTIMESTAMP)
+FROM items AS i
+WHERE EXISTS (SELECT 1 FROM bookings AS b WHERE b.item_id = i.id AND b.status = 'APPROVED');
@@ -0,0 +1,44 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+public class SchemaMigrationTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void everyMigrationIsApplied() {
+        assertEquals(List.of("1", "2", "4", "5", "6", "7"), jdbcTemplate.queryForList(
+                "SELECT \"version\" FROM \"flyway_schema_history\" WHERE \"type\" = 'SQL' AND \"success\" "
+                        + "ORDER BY \"installed_rank\"",
+                String.class));
+    }
+
+    @Test
+    void accessPathIndexesExist() {
+        List<String> indexes = jdbcTemplate.queryForList(
+                "SELECT INDEX_NAME FROM INFORMATION_SCHEMA.INDEXES WHERE TABLE_SCHEMA = 'PUBLIC'", String.class);
+
+        assertTrue(indexes.containsAll(List.of(
+                "IDX_BOOKINGS_BOOKER_START",
+                "IDX_BOOKINGS_ITEM_START",
+                "IDX_BOOKINGS_ITEM_STATUS_START",
+                "IDX_BOOKINGS_BOOKER_ITEM_STATUS_END",
+                "IDX_ITEMS_OWNER",
+                "IDX_ITEMS_REQUEST",
+                "IDX_COMMENTS_ITEM_CREATED_ID",
+                "IDX_REQUESTS_REQUESTOR_CREATED",
+                "IDX_REQUESTS_CREATED",
+                "IDX_ITEM_BOOKING_SUMMARY_NEXT_START")), indexes.toString());
+    }
+}
@@ -0,0 +1,169 @@
+package ru.practicum.shareit.booking;
+
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingReqDto;
+import ru.practicum.shareit.booking.dto.BookingRespDto;
+import ru.practicum.shareit.booking.lock.ItemLocks;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.ItemReqDto;
+import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.UserDto;
+import ru.practicum.shareit.user.service.UserService;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Many threads book and approve or reject one hot item at once, each call in its own transaction.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
+public class BookingConcurrencyIT {
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS_PER_THREAD = 40;
+
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private ItemLocks itemLocks;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+    private final LocalDateTime base = LocalDateTime.now().plusDays(1L).truncatedTo(ChronoUnit.HOURS);
+
+    private Long ownerId;
+    private Long hotItemId;
+    private Long coldItemId;
+
+    @BeforeEach
+    void init() {
+        ownerId = userService.add(UserDto.builder().name("owner").email("owner@mail.com").build()).getId();
+        hotItemId = itemService.add(ownerId, item("hot")).getId();
+        coldItemId = itemService.add(ownerId, item("cold")).getId();
+    }
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    @SneakyThrows
+    void whenManyThreadsBookAndApproveOneItem_thenBookingsNeverOverlap() {
+        List<Long> bookerIds = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            bookerIds.add(userService.add(UserDto.builder().name("booker" + t).email("booker" + t + "@mail.com")
+                    .build()).getId());
+        }
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            Long bookerId = bookerIds.get(t);
+            SplittableRandom random = new SplittableRandom(t);
+            futures.add(executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_THREAD; i++) {
+                    LocalDateTime from = base.plusHours(random.nextInt(48));
+                    try {
+                        BookingRespDto booking = bookingService.add(bookerId, booking(hotItemId, from,
+                                from.plusHours(random.nextInt(1, 6))));
+                        bookingService.update(ownerId, booking.getId(), random.nextInt(4) != 0);
+                    } catch (ValidationException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get(2, TimeUnit.MINUTES);
+        }
+
+        List<Booking> blocking = bookingRepository.findAll().stream()
+                .filter(booking -> booking.getStatus() != BookingStatus.REJECTED)
+                .sorted(Comparator.comparing(Booking::getStart))
+                .collect(Collectors.toList());
+        assertFalse(blocking.isEmpty());
+        assertTrue(rejected.get() > 0, "no booking attempt collided");
+        for (int i = 1; i < blocking.size(); i++) {
+            Booking previous = blocking.get(i - 1);
+            Booking next = blocking.get(i);
+            assertFalse(previous.getEnd().isAfter(next.getStart()),
+                    "booking " + previous.getId() + " overlaps booking " + next.getId());
+        }
+    }
+
+    @Test
+    @SneakyThrows
+    void whenHotItemIsLocked_thenOtherItemsAreStillBooked() {
+        Long bookerId = userService.add(UserDto.builder().name("booker").email("booker@mail.com").build()).getId();
+        CountDownLatch locked = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        executor.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            itemLocks.lockUntilCompletion(hotItemId);
+            locked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        locked.await();
+
+        Future<BookingRespDto> hotBooking = executor.submit(() ->
+                bookingService.add(bookerId, booking(hotItemId, base, base.plusHours(1L))));
+        Future<BookingRespDto> coldBooking = executor.submit(() ->
+                bookingService.add(bookerId, booking(coldItemId, base, base.plusHours(1L))));
+
+        assertEquals(BookingStatus.WAITING, coldBooking.get(10, TimeUnit.SECONDS).getStatus());
+        assertThrows(TimeoutException.class, () -> hotBooking.get(200, TimeUnit.MILLISECONDS));
+        release.countDown();
+        assertEquals(BookingStatus.WAITING, hotBooking.get(10, TimeUnit.SECONDS).getStatus());
+    }
+
+    private static ItemReqDto item(String name) {
+        return ItemReqDto.builder().name(name).description(name + " item").available(true).build();
+    }
+
+    private static BookingReqDto booking(Long itemId, LocalDateTime start, LocalDateTime end) {
+        return BookingReqDto.builder().itemId(itemId).start(start).end(end).build();
+    }
+}
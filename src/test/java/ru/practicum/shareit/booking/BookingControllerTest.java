@@ -6,12 +6,18 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingApprovalReqDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingReqDto;
 import ru.practicum.shareit.booking.dto.BookingRespDto;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
@@ -19,10 +25,13 @@ import ru.practicum.shareit.user.UserMapper;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.item.ItemController.USER_HEADER;
 
@@ -100,6 +109,144 @@ public class BookingControllerTest {
         verify(bookingService, never()).add(user.getId(), bookingReqDto);
     }
 
+    @Test
+    @SneakyThrows
+    void whenBatchIsValid_thenAddAllReturnsResultPerEntry() {
+        List<BookingReqDto> bookingReqDtos = List.of(bookingReqDto, bookingReqDto);
+        List<BookingBatchResultDto> results = List.of(
+                new BookingBatchResultDto(BookingBatchResultDto.Status.CREATED, bookingRespDto, null),
+                new BookingBatchResultDto(BookingBatchResultDto.Status.REJECTED, null,
+                        "Item is already booked for the requested dates"));
+        when(bookingService.addAll(user.getId(), bookingReqDtos))
+                .thenReturn(results);
+
+        String result = mockMvc.perform(post("/bookings/batch")
+                        .contentType("application/json")
+                        .header(USER_HEADER, user.getId())
+                        .content(objectMapper.writeValueAsString(bookingReqDtos)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(results), result);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenBatchIsEmptyOrHasNullOrInvalidEntry_thenAddAllReturnsBadRequest() {
+        mockMvc.perform(post("/bookings/batch")
+                        .contentType("application/json")
+                        .header(USER_HEADER, user.getId())
+                        .content("[]"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(post("/bookings/batch")
+                        .contentType("application/json")
+                        .header(USER_HEADER, user.getId())
+                        .content("[null]"))
+                .andExpect(status().isBadRequest());
+
+        bookingReqDto.setStart(null);
+        mockMvc.perform(post("/bookings/batch")
+                        .contentType("application/json")
+                        .header(USER_HEADER, user.getId())
+                        .content(objectMapper.writeValueAsString(List.of(bookingReqDto))))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingService, never()).addAll(anyLong(), anyList());
+    }
+
+    @Test
+    @SneakyThrows
+    void whenApprovalIsValid_thenUpdateAllReturnsBookings() {
+        BookingApprovalReqDto bookingApprovalReqDto = new BookingApprovalReqDto(Set.of(1L), true);
+        when(bookingService.updateAll(user.getId(), bookingApprovalReqDto))
+                .thenReturn(List.of(bookingRespDto));
+
+        String result = mockMvc.perform(patch("/bookings/batch")
+                        .contentType("application/json")
+                        .header(USER_HEADER, user.getId())
+                        .content(objectMapper.writeValueAsString(bookingApprovalReqDto)))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(List.of(bookingRespDto)), result);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenApprovalHasNoIdsOrDecision_thenUpdateAllReturnsBadRequest() {
+        mockMvc.perform(patch("/bookings/batch")
+                        .contentType("application/json")
+                        .header(USER_HEADER, user.getId())
+                        .content(objectMapper.writeValueAsString(new BookingApprovalReqDto(Set.of(), true))))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(patch("/bookings/batch")
+                        .contentType("application/json")
+                        .header(USER_HEADER, user.getId())
+                        .content(objectMapper.writeValueAsString(new BookingApprovalReqDto(Set.of(1L), null))))
+                .andExpect(status().isBadRequest());
+
+        verify(bookingService, never()).updateAll(anyLong(), any());
+    }
+
+    @Test
+    @SneakyThrows
+    void whenStatsRequested_thenReturnCountsForBookerAndOwner() {
+        BookingStatsDto bookingStatsDto = new BookingStatsDto(6L, 1L, 2L, 3L, 1L, 0L);
+        when(bookingService.findStats(user.getId())).thenReturn(bookingStatsDto);
+        when(bookingService.findStatsByOwnerId(user.getId())).thenReturn(bookingStatsDto);
+
+        for (String path : List.of("/bookings/stats", "/bookings/owner/stats")) {
+            String result = mockMvc.perform(get(path)
+                            .header(USER_HEADER, user.getId()))
+                    .andExpect(status().isOk())
+                    .andReturn()
+                    .getResponse()
+                    .getContentAsString();
+
+            assertEquals(objectMapper.writeValueAsString(bookingStatsDto), result);
+        }
+        verify(bookingService).findStats(user.getId());
+        verify(bookingService).findStatsByOwnerId(user.getId());
+    }
+
+    @Test
+    @SneakyThrows
+    void whenOwnerExports_thenWriteOneJsonObjectPerLine() {
+        doAnswer(invocation -> {
+            Consumer<BookingRespDto> consumer = invocation.getArgument(1);
+            consumer.accept(bookingRespDto);
+            consumer.accept(bookingRespDto);
+            return null;
+        }).when(bookingService).exportAllByOwnerId(eq(user.getId()), any());
+
+        MockHttpServletResponse response = mockMvc.perform(get("/bookings/owner/export")
+                        .header(USER_HEADER, user.getId()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse();
+
+        assertEquals(BookingController.NDJSON + ";charset=UTF-8", response.getContentType());
+        String line = objectMapper.writeValueAsString(bookingRespDto);
+        assertEquals(line + "\n" + line + "\n", response.getContentAsString());
+    }
+
+    @Test
+    @SneakyThrows
+    void whenExportingOwnerIsUnknown_thenReturnNotFound() {
+        doThrow(new NotFoundException("User with id=1 not found"))
+                .when(bookingService).exportAllByOwnerId(eq(user.getId()), any());
+
+        mockMvc.perform(get("/bookings/owner/export")
+                        .header(USER_HEADER, user.getId()))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     @SneakyThrows
     void whenPageIsCorrect_thenFindAllReturnsStatusOk() {
@@ -218,4 +365,60 @@ public class BookingControllerTest {
 
         assertEquals(objectMapper.writeValueAsString(bookingRespDto), result);
     }
+
+    @Test
+    @SneakyThrows
+    void whenETagMatches_thenFindByIdAnswersNotModified() {
+        Long bookingId = 1L;
+        when(bookingService.findETag(user.getId(), bookingId)).thenReturn("2-5");
+
+        mockMvc.perform(get("/bookings/{bookingId}", bookingId)
+                        .header(USER_HEADER, user.getId())
+                        .header("If-None-Match", "\"1-5\", \"2-5\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"2-5\""));
+
+        verify(bookingService, never()).findByUserId(any(), any());
+    }
+
+    @Test
+    @SneakyThrows
+    void whenCursorIsPresent_thenFindAllByCursorReturnsPage() {
+        BookingPageDto bookingPageDto = new BookingPageDto(List.of(bookingRespDto), "next");
+        when(bookingService.findAllByCursor(user.getId(), "ALL", "", 10))
+                .thenReturn(bookingPageDto);
+
+        String result = mockMvc.perform(get("/bookings")
+                        .param("cursor", "")
+                        .contentType("application/json")
+                        .header(USER_HEADER, user.getId()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(bookingPageDto), result);
+        verify(bookingService, never()).findAll(anyLong(), anyString(), anyInt(), anyInt());
+    }
+
+    @Test
+    @SneakyThrows
+    void whenCursorIsPresent_thenFindAllByOwnerIdAndCursorReturnsPage() {
+        BookingPageDto bookingPageDto = new BookingPageDto(List.of(bookingRespDto), null);
+        when(bookingService.findAllByOwnerIdAndCursor(user.getId(), "WAITING", "abc", 5))
+                .thenReturn(bookingPageDto);
+
+        String result = mockMvc.perform(get("/bookings/owner")
+                        .param("state", "WAITING")
+                        .param("cursor", "abc")
+                        .param("size", "5")
+                        .contentType("application/json")
+                        .header(USER_HEADER, user.getId()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(bookingPageDto), result);
+    }
 }
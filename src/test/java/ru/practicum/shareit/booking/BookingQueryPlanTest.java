@@ -0,0 +1,149 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingQuery;
+import ru.practicum.shareit.datagen.DataGenerator;
+import ru.practicum.shareit.datagen.DataGeneratorProperties;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Guards the access paths of {@link BookingQuery}: every state has to be answered by the same
+ * index lookups as the others, and only the owner role may search {@code items} by anything
+ * but its primary key.
+ * A plan shape is the list of tables in join order, each with the leading column of the index
+ * used to reach it ({@code tableScan} when no index is used).
+ * <p>
+ * Plans are taken over skewed rows from {@link DataGenerator}, so the optimizer weighs real
+ * selectivities. The generator restarts the id sequences, which commits in H2, so the test runs
+ * outside a test transaction and empties the tables afterwards.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookingQueryPlanTest {
+    private static final List<String> TABLES = List.of("comments", "bookings", "items", "requests", "users");
+    private static final Pattern TABLE_ACCESS = Pattern.compile(
+            "\"PUBLIC\"\\.\"(\\w+)\" \"\\w+\"\\s*/\\* PUBLIC\\.(\\w+)(\\.tableScan)?");
+
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void seed() {
+        DataGeneratorProperties properties = new DataGeneratorProperties();
+        properties.setReferenceDate(LocalDate.of(2024, 1, 1));
+        properties.setUsers(50);
+        properties.setRequests(20);
+        properties.setItems(500);
+        properties.setBookings(2_000);
+        properties.setComments(300);
+        properties.setBatchSize(500);
+        new DataGenerator(jdbcTemplate, new TransactionTemplate(transactionManager), properties).generate();
+    }
+
+    @AfterEach
+    void clear() {
+        jdbcTemplate.update("DELETE FROM item_booking_summary");
+        TABLES.forEach(table -> {
+            jdbcTemplate.update("DELETE FROM " + table);
+            jdbcTemplate.execute("ALTER SEQUENCE " + table + "_seq RESTART WITH 50");
+        });
+    }
+
+    @Test
+    void bookerPlanIsTheSameForEveryState() {
+        List<String> expected = List.of("BOOKINGS:BOOKER_ID", "ITEMS:ID", "USERS:ID");
+
+        for (BookingState state : BookingState.values()) {
+            assertEquals(expected, planShape(BookingRole.BOOKER, state, null), state.name());
+            assertEquals(expected, planShape(BookingRole.BOOKER, state, cursor()), state.name());
+        }
+    }
+
+    @Test
+    void ownerPlanIsTheSameForEveryState() {
+        List<String> expected = List.of("ITEMS:OWNER_ID", "BOOKINGS:ITEM_ID", "USERS:ID");
+
+        for (BookingState state : BookingState.values()) {
+            assertEquals(expected, planShape(BookingRole.OWNER, state, null), state.name());
+            assertEquals(expected, planShape(BookingRole.OWNER, state, cursor()), state.name());
+        }
+    }
+
+    @Test
+    void statsPlanReadsTheSameRowsAsTheListing() {
+        assertEquals(List.of("BOOKINGS:BOOKER_ID"), statsPlanShape(BookingRole.BOOKER));
+        assertEquals(List.of("ITEMS:OWNER_ID", "BOOKINGS:ITEM_ID"), statsPlanShape(BookingRole.OWNER));
+    }
+
+    private List<String> statsPlanShape(BookingRole role) {
+        BookingQuery bookingQuery = BookingQuery.builder()
+                .role(role)
+                .userId(1L)
+                .state(BookingState.ALL)
+                .currentTime(LocalDateTime.now())
+                .build();
+        return planShape(bookingQuery.toStatsSql(), bookingQuery.getStatsParameters());
+    }
+
+    private List<String> planShape(BookingRole role, BookingState state, BookingCursor cursor) {
+        BookingQuery bookingQuery = BookingQuery.builder()
+                .role(role)
+                .userId(1L)
+                .state(state)
+                .currentTime(LocalDateTime.now())
+                .cursor(cursor)
+                .size(10)
+                .build();
+        return planShape(bookingQuery.toViewSql(), bookingQuery.getParameters());
+    }
+
+    private List<String> planShape(String sql, Map<String, Object> parameters) {
+        Query query = entityManager.createNativeQuery("EXPLAIN " + sql);
+        parameters.forEach(query::setParameter);
+
+        Matcher matcher = TABLE_ACCESS.matcher((String) query.getSingleResult());
+        List<String> shape = new ArrayList<>();
+        while (matcher.find()) {
+            shape.add(matcher.group(1) + ":" + (matcher.group(3) != null ? "tableScan" : leadingColumn(matcher.group(2))));
+        }
+        return shape;
+    }
+
+    private String leadingColumn(String indexName) {
+        return (String) entityManager.createNativeQuery("SELECT COLUMN_NAME FROM INFORMATION_SCHEMA.INDEX_COLUMNS "
+                        + "WHERE TABLE_SCHEMA = 'PUBLIC' AND INDEX_NAME = ?1 AND ORDINAL_POSITION = 1")
+                .setParameter(1, indexName)
+                .getSingleResult();
+    }
+
+    private BookingCursor cursor() {
+        return new BookingCursor(LocalDateTime.now(), 100L);
+    }
+}
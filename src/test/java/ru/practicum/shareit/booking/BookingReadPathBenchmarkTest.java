@@ -0,0 +1,168 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingRespDto;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.repository.BookingQuery;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.datagen.DataGenerator;
+import ru.practicum.shareit.datagen.DataGeneratorProperties;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the entity and the {@code BookingView} read paths of a booking listing page.
+ * The entity path reads the same page as {@code Booking} entities and maps them, loading their
+ * items and bookers lazily. Every iteration runs in its own transaction with an empty persistence context,
+ * as a request would. The tables are filled by {@link DataGenerator} around a fixed reference date, which
+ * the listings take as the current time. The generator restarts the id sequences, which commits in H2,
+ * so the test runs outside a test transaction and empties the tables afterwards.
+ * Excluded from the default build; run with {@code mvn test -Pbenchmark}.
+ */
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class BookingReadPathBenchmarkTest {
+    private static final List<String> TABLES = List.of("comments", "bookings", "items", "requests", "users");
+    private static final LocalDate REFERENCE_DATE = LocalDate.of(2024, 1, 1);
+    private static final int PAGE_SIZE = 50;
+    private static final int WARMUP_ITERATIONS = 500;
+    private static final int MEASURED_ITERATIONS = 2_000;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void seed() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        DataGeneratorProperties properties = new DataGeneratorProperties();
+        properties.setReferenceDate(REFERENCE_DATE);
+        properties.setUsers(100);
+        properties.setRequests(50);
+        properties.setItems(1_000);
+        properties.setBookings(20_000);
+        properties.setComments(1_000);
+        properties.setBatchSize(500);
+        new DataGenerator(jdbcTemplate, transactionTemplate, properties).generate();
+    }
+
+    @AfterEach
+    void clear() {
+        jdbcTemplate.update("DELETE FROM item_booking_summary");
+        TABLES.forEach(table -> {
+            jdbcTemplate.update("DELETE FROM " + table);
+            jdbcTemplate.execute("ALTER SEQUENCE " + table + "_seq RESTART WITH 50");
+        });
+    }
+
+    @Test
+    void compareEntityAndViewPaths() {
+        for (BookingRole role : BookingRole.values()) {
+            for (BookingState state : List.of(BookingState.ALL, BookingState.FUTURE)) {
+                BookingQuery bookingQuery = BookingQuery.builder()
+                        .role(role)
+                        .userId(1L)
+                        .state(state)
+                        .currentTime(REFERENCE_DATE.atStartOfDay())
+                        .size(PAGE_SIZE)
+                        .build();
+                Supplier<List<BookingRespDto>> entityPath = () -> findEntities(bookingQuery).stream()
+                        .map(BookingMapper::toBookingRespDto)
+                        .collect(Collectors.toList());
+                Supplier<List<BookingRespDto>> viewPath = () -> bookingRepository.findViewsByQuery(bookingQuery)
+                        .stream()
+                        .map(BookingMapper::toBookingRespDto)
+                        .collect(Collectors.toList());
+
+                assertEquals(read(entityPath), read(viewPath));
+                Result entity = measure(entityPath);
+                Result view = measure(viewPath);
+                log.info("{} {}: entity {} | view {}", role, state, entity, view);
+            }
+        }
+    }
+
+    /**
+     * Reads the page of the listing as {@code Booking} entities: the view query with only the booking
+     * columns selected.
+     */
+    @SuppressWarnings("unchecked")
+    private List<Booking> findEntities(BookingQuery bookingQuery) {
+        String viewSql = bookingQuery.toViewSql();
+        Query query = entityManager.createNativeQuery(
+                        "SELECT b.* " + viewSql.substring(viewSql.indexOf("FROM bookings AS b ")), Booking.class)
+                .setFirstResult(bookingQuery.getOffset())
+                .setMaxResults(bookingQuery.getSize());
+        bookingQuery.getParameters().forEach(query::setParameter);
+        return query.getResultList();
+    }
+
+    private Result measure(Supplier<List<BookingRespDto>> path) {
+        for (int i = 0; i < WARMUP_ITERATIONS; i++) {
+            run(path);
+        }
+        com.sun.management.ThreadMXBean threadMXBean =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+        long startedAt = System.nanoTime();
+        for (int i = 0; i < MEASURED_ITERATIONS; i++) {
+            run(path);
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        long allocated = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBefore;
+        return new Result(elapsed / MEASURED_ITERATIONS, allocated / MEASURED_ITERATIONS);
+    }
+
+    private void run(Supplier<List<BookingRespDto>> path) {
+        assertEquals(PAGE_SIZE, read(path).size());
+    }
+
+    private List<BookingRespDto> read(Supplier<List<BookingRespDto>> path) {
+        return transactionTemplate.execute(status -> path.get());
+    }
+
+    private static class Result {
+        private final long nanosPerPage;
+        private final long bytesPerPage;
+
+        Result(long nanosPerPage, long bytesPerPage) {
+            this.nanosPerPage = nanosPerPage;
+            this.bytesPerPage = bytesPerPage;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%,d us/page, %,d KB/page", nanosPerPage / 1_000, bytesPerPage / 1_024);
+        }
+    }
+}
@@ -6,19 +6,29 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingQuery;
 import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.junit.jupiter.api.Assertions.fail;
 
 @DataJpaTest
@@ -88,38 +98,34 @@ public class BookingRepositoryTest {
 
     @Test
     void findAllByBookerId() {
-        List<Booking> bookings = bookingRepository.findAllBookingsByBookerId(1L,
-                PageRequest.of(0, 10));
+        List<BookingView> bookings = bookingRepository.findViewsByQuery(query(BookingRole.BOOKER, 1L, BookingState.ALL));
 
         assertEquals(bookings.size(), 3);
-        assertEquals(bookings.get(0).getBooker().getId(), 1L);
+        assertEquals(bookings.get(0).getBookerId(), 1L);
     }
 
     @Test
     void findAllCurrentByBookerId() {
-        List<Booking> bookings = bookingRepository.findAllCurrentBookingsByBookerId(1L,
-                LocalDateTime.now(), PageRequest.of(0, 10));
+        List<BookingView> bookings = bookingRepository.findViewsByQuery(query(BookingRole.BOOKER, 1L, BookingState.CURRENT));
 
         assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getBooker().getId(), 1L);
+        assertEquals(bookings.get(0).getBookerId(), 1L);
     }
 
     @Test
     void findAllPastByBookerId() {
-        List<Booking> bookings = bookingRepository.findAllPastBookingsByBookerId(1L,
-                LocalDateTime.now(), PageRequest.of(0, 10));
+        List<BookingView> bookings = bookingRepository.findViewsByQuery(query(BookingRole.BOOKER, 1L, BookingState.PAST));
 
         assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getBooker().getId(), 1L);
+        assertEquals(bookings.get(0).getBookerId(), 1L);
     }
 
     @Test
     void findAllFutureByBookerId() {
-        List<Booking> bookings = bookingRepository.findAllFutureBookingsByBookerId(1L,
-                LocalDateTime.now(), PageRequest.of(0, 10));
+        List<BookingView> bookings = bookingRepository.findViewsByQuery(query(BookingRole.BOOKER, 1L, BookingState.FUTURE));
 
         assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getBooker().getId(), 1L);
+        assertEquals(bookings.get(0).getBookerId(), 1L);
     }
 
     @Test
@@ -133,12 +139,11 @@ public class BookingRepositoryTest {
                 .build();
 
         bookingRepository.save(waitingBooking);
-        List<Booking> bookings = bookingRepository.findAllWaitingBookingsByBookerId(1L,
-                LocalDateTime.now(), PageRequest.of(0, 10));
+        List<BookingView> bookings = bookingRepository.findViewsByQuery(query(BookingRole.BOOKER, 1L, BookingState.WAITING));
 
         assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getBooker().getId(), 1L);
-        assertEquals(bookings.get(0).getStatus(), BookingStatus.WAITING);
+        assertEquals(bookings.get(0).getBookerId(), 1L);
+        assertEquals(bookings.get(0).getStatus(), BookingStatus.WAITING.name());
     }
 
     @Test
@@ -152,48 +157,43 @@ public class BookingRepositoryTest {
                 .build();
 
         bookingRepository.save(rejectedBooking);
-        List<Booking> bookings = bookingRepository.findAllRejectedBookingsByBookerId(1L,
-                LocalDateTime.now(), PageRequest.of(0, 10));
+        List<BookingView> bookings = bookingRepository.findViewsByQuery(query(BookingRole.BOOKER, 1L, BookingState.REJECTED));
 
         assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getBooker().getId(), 1L);
-        assertEquals(bookings.get(0).getStatus(), BookingStatus.REJECTED);
+        assertEquals(bookings.get(0).getBookerId(), 1L);
+        assertEquals(bookings.get(0).getStatus(), BookingStatus.REJECTED.name());
     }
 
     @Test
     void findAllByOwnerId() {
-        List<Booking> bookings = bookingRepository.findAllBookingsByOwnerId(2L,
-                PageRequest.of(0, 10));
+        List<BookingView> bookings = bookingRepository.findViewsByQuery(query(BookingRole.OWNER, 2L, BookingState.ALL));
 
         assertEquals(bookings.size(), 3);
-        assertEquals(bookings.get(0).getItem().getOwner().getId(), 2L);
+        assertEquals(bookings.get(0).getItemId(), item.getId());
     }
 
     @Test
     void findAllCurrentByOwnerId() {
-        List<Booking> bookings = bookingRepository.findAllCurrentBookingsByOwnerId(2L,
-                LocalDateTime.now(), PageRequest.of(0, 10));
+        List<BookingView> bookings = bookingRepository.findViewsByQuery(query(BookingRole.OWNER, 2L, BookingState.CURRENT));
 
         assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getItem().getOwner().getId(), 2L);
+        assertEquals(bookings.get(0).getItemId(), item.getId());
     }
 
     @Test
     void findAllPastByOwnerId() {
-        List<Booking> bookings = bookingRepository.findAllPastBookingsByOwnerId(2L,
-                LocalDateTime.now(), PageRequest.of(0, 10));
+        List<BookingView> bookings = bookingRepository.findViewsByQuery(query(BookingRole.OWNER, 2L, BookingState.PAST));
 
         assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getItem().getOwner().getId(), 2L);
+        assertEquals(bookings.get(0).getItemId(), item.getId());
     }
 
     @Test
     void findAllFutureByOwnerId() {
-        List<Booking> bookings = bookingRepository.findAllFutureBookingsByOwnerId(2L,
-                LocalDateTime.now(), PageRequest.of(0, 10));
+        List<BookingView> bookings = bookingRepository.findViewsByQuery(query(BookingRole.OWNER, 2L, BookingState.FUTURE));
 
         assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getItem().getOwner().getId(), 2L);
+        assertEquals(bookings.get(0).getItemId(), item.getId());
     }
 
     @Test
@@ -207,12 +207,11 @@ public class BookingRepositoryTest {
                 .build();
 
         bookingRepository.save(waitingBooking);
-        List<Booking> bookings = bookingRepository.findAllWaitingBookingsByOwnerId(2L,
-                LocalDateTime.now(), PageRequest.of(0, 10));
+        List<BookingView> bookings = bookingRepository.findViewsByQuery(query(BookingRole.OWNER, 2L, BookingState.WAITING));
 
         assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getItem().getOwner().getId(), 2L);
-        assertEquals(bookings.get(0).getStatus(), BookingStatus.WAITING);
+        assertEquals(bookings.get(0).getItemId(), item.getId());
+        assertEquals(bookings.get(0).getStatus(), BookingStatus.WAITING.name());
     }
 
     @Test
@@ -226,12 +225,55 @@ public class BookingRepositoryTest {
                 .build();
 
         bookingRepository.save(rejectedBooking);
-        List<Booking> bookings = bookingRepository.findAllRejectedBookingsByOwnerId(2L,
-                PageRequest.of(0, 10));
+        List<BookingView> bookings = bookingRepository.findViewsByQuery(query(BookingRole.OWNER, 2L, BookingState.REJECTED));
 
         assertEquals(bookings.size(), 1);
-        assertEquals(bookings.get(0).getItem().getOwner().getId(), 2L);
-        assertEquals(bookings.get(0).getStatus(), BookingStatus.REJECTED);
+        assertEquals(bookings.get(0).getItemId(), item.getId());
+        assertEquals(bookings.get(0).getStatus(), BookingStatus.REJECTED.name());
+    }
+
+    @Test
+    void findViewsByQueryWithOffset() {
+        List<BookingView> bookings = bookingRepository.findViewsByQuery(BookingQuery.builder()
+                .role(BookingRole.OWNER)
+                .userId(2L)
+                .state(BookingState.ALL)
+                .offset(2)
+                .size(2)
+                .build());
+
+        assertEquals(1, bookings.size());
+        assertEquals(2L, bookings.get(0).getId());
+    }
+
+    @Test
+    void findLastAndNextBookings() {
+        Booking rejectedBooking = Booking.builder()
+                .item(item)
+                .booker(user)
+                .status(BookingStatus.REJECTED)
+                .start(LocalDateTime.now().plusHours(1L))
+                .end(LocalDateTime.now().plusHours(2L))
+                .build();
+        bookingRepository.save(rejectedBooking);
+
+        List<ItemBookingView> bookings = bookingRepository.findLastAndNextBookings(List.of(1L),
+                LocalDateTime.now());
+
+        assertEquals(2, bookings.size());
+        ItemBookingView lastBooking = bookings.stream()
+                .filter(booking -> booking.getStart().isBefore(LocalDateTime.now()))
+                .findFirst()
+                .orElseThrow();
+        ItemBookingView nextBooking = bookings.stream()
+                .filter(booking -> booking.getStart().isAfter(LocalDateTime.now()))
+                .findFirst()
+                .orElseThrow();
+        assertEquals(1L, lastBooking.getId());
+        assertEquals(3L, nextBooking.getId());
+        assertEquals(1L, nextBooking.getItemId());
+        assertEquals("user", nextBooking.getBookerName());
+        assertEquals("APPROVED", nextBooking.getStatus());
     }
 
     @Test
@@ -270,4 +312,136 @@ public class BookingRepositoryTest {
             fail();
         }
     }
+
+    @Test
+    void findBookerPageAfterCursor() {
+        List<BookingView> firstPage = bookingRepository.findViewsByQuery(BookingQuery.builder()
+                .role(BookingRole.BOOKER)
+                .userId(1L)
+                .state(BookingState.ALL)
+                .size(2)
+                .build());
+        List<BookingView> secondPage = bookingRepository.findViewsByQuery(BookingQuery.builder()
+                .role(BookingRole.BOOKER)
+                .userId(1L)
+                .state(BookingState.ALL)
+                .cursor(BookingCursor.of(firstPage.get(1)))
+                .size(2)
+                .build());
+
+        assertEquals(2, firstPage.size());
+        assertEquals(3L, firstPage.get(0).getId());
+        assertEquals(1L, firstPage.get(1).getId());
+        assertEquals(1, secondPage.size());
+        assertEquals(2L, secondPage.get(0).getId());
+    }
+
+    @Test
+    void findOwnerPageAfterCursor() {
+        List<BookingView> bookings = bookingRepository.findViewsByQuery(BookingQuery.builder()
+                .role(BookingRole.OWNER)
+                .userId(2L)
+                .state(BookingState.PAST)
+                .currentTime(LocalDateTime.now())
+                .cursor(new BookingCursor(LocalDateTime.now(), Long.MAX_VALUE))
+                .size(10)
+                .build());
+
+        assertEquals(1, bookings.size());
+        assertEquals(2L, bookings.get(0).getId());
+    }
+
+    @Test
+    void updateStatusChangesOnlyBookingsInExpectedStatus() {
+        Booking waitingBooking = Booking.builder()
+                .item(item)
+                .booker(user)
+                .status(BookingStatus.WAITING)
+                .start(LocalDateTime.now().plusDays(3L))
+                .end(LocalDateTime.now().plusDays(4L))
+                .build();
+        bookingRepository.save(waitingBooking);
+
+        int updated = bookingRepository.updateStatus(List.of(booking.getId(), waitingBooking.getId()),
+                BookingStatus.WAITING, BookingStatus.APPROVED);
+
+        assertEquals(1, updated);
+        List<Booking> bookings = bookingRepository.findAllWithItemByIdIn(List.of(booking.getId(), waitingBooking.getId()));
+        assertEquals(2, bookings.size());
+        bookings.forEach(b -> assertEquals(BookingStatus.APPROVED, b.getStatus()));
+    }
+
+    @Test
+    void streamIntervalsReturnsBlockingBookingsIntersectingWindowInStartOrder() {
+        LocalDateTime from = LocalDateTime.now().minusDays(1L).plusHours(1L);
+        LocalDateTime to = LocalDateTime.now().plusDays(3L);
+        bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(user)
+                .status(BookingStatus.WAITING)
+                .start(LocalDateTime.now().plusHours(6L))
+                .end(LocalDateTime.now().plusHours(8L))
+                .build());
+        bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(user)
+                .status(BookingStatus.REJECTED)
+                .start(LocalDateTime.now().plusHours(2L))
+                .end(LocalDateTime.now().plusHours(3L))
+                .build());
+
+        List<LocalDateTime> starts;
+        try (Stream<BookingInterval> intervals = bookingRepository.streamIntervalsByItemIdAndStatusIn(item.getId(),
+                List.of(BookingStatus.WAITING, BookingStatus.APPROVED), from, to)) {
+            starts = intervals.map(BookingInterval::getStart).collect(Collectors.toList());
+        }
+
+        assertEquals(3, starts.size());
+        assertTrue(starts.get(0).isBefore(LocalDateTime.now()));
+        assertTrue(starts.get(1).isAfter(LocalDateTime.now().plusHours(5L)));
+        assertTrue(starts.get(1).isBefore(LocalDateTime.now().plusHours(12L)));
+        assertTrue(starts.get(2).isAfter(LocalDateTime.now().plusHours(12L)));
+    }
+
+    @Test
+    void countByStateMatchesListingSizes() {
+        bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(user)
+                .status(BookingStatus.WAITING)
+                .start(LocalDateTime.now().plusDays(3L))
+                .end(LocalDateTime.now().plusDays(4L))
+                .build());
+        bookingRepository.save(Booking.builder()
+                .item(item)
+                .booker(user)
+                .status(BookingStatus.REJECTED)
+                .start(LocalDateTime.now().plusDays(5L))
+                .end(LocalDateTime.now().plusDays(6L))
+                .build());
+
+        for (BookingRole role : BookingRole.values()) {
+            Long userId = role == BookingRole.BOOKER ? user.getId() : owner.getId();
+            Map<BookingState, Long> counts = bookingRepository.countByState(query(role, userId, BookingState.ALL));
+
+            for (BookingState state : BookingState.values()) {
+                assertEquals((long) bookingRepository.findViewsByQuery(query(role, userId, state)).size(), counts.get(state),
+                        role + " " + state);
+            }
+            assertEquals(5L, counts.get(BookingState.ALL));
+            assertEquals(1L, counts.get(BookingState.WAITING));
+        }
+        assertEquals(0L, bookingRepository.countByState(query(BookingRole.OWNER, user.getId(), BookingState.ALL))
+                .get(BookingState.ALL));
+    }
+
+    private BookingQuery query(BookingRole role, Long userId, BookingState state) {
+        return BookingQuery.builder()
+                .role(role)
+                .userId(userId)
+                .state(state)
+                .currentTime(LocalDateTime.now())
+                .size(10)
+                .build();
+    }
 }
@@ -5,19 +5,25 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.dto.BookingApprovalReqDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
 import ru.practicum.shareit.booking.dto.BookingReqDto;
 import ru.practicum.shareit.booking.dto.BookingRespDto;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exception.NotFoundException;
+import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.dto.ItemReqDto;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
@@ -62,6 +68,12 @@ public class BookingServiceIT {
             .end(LocalDateTime.now().plusSeconds(11L))
             .build();
 
+    private final BookingReqDto bookingReqDto2 = BookingReqDto.builder()
+            .itemId(2L)
+            .start(LocalDateTime.now().plusSeconds(12L))
+            .end(LocalDateTime.now().plusSeconds(13L))
+            .build();
+
     @Test
     void addBooking() {
         UserDto addedUser1 = userService.add(userDto1);
@@ -70,7 +82,7 @@ public class BookingServiceIT {
         itemService.add(addedUser2.getId(), itemReqDto2);
 
         BookingRespDto bookingRespDto1 = bookingService.add(addedUser1.getId(), bookingReqDto1);
-        BookingRespDto bookingRespDto2 = bookingService.add(addedUser1.getId(), bookingReqDto1);
+        BookingRespDto bookingRespDto2 = bookingService.add(addedUser1.getId(), bookingReqDto2);
 
         assertEquals(1L, bookingRespDto1.getId());
         assertEquals(2L, bookingRespDto2.getId());
@@ -91,6 +103,92 @@ public class BookingServiceIT {
         assertEquals(2, bookingRespDtoList.size());
     }
 
+    @Test
+    void whenBookingOverlaps_thenAddThrowsValidationException() {
+        UserDto addedUser1 = userService.add(userDto1);
+        UserDto addedUser2 = userService.add(userDto2);
+        itemService.add(addedUser1.getId(), itemReqDto1);
+        itemService.add(addedUser2.getId(), itemReqDto2);
+        BookingRespDto bookingRespDto = bookingService.add(addedUser1.getId(), bookingReqDto1);
+
+        ValidationException validationException = assertThrows(ValidationException.class,
+                () -> bookingService.add(addedUser1.getId(), bookingReqDto1));
+        assertEquals("Item is already booked for the requested dates", validationException.getMessage());
+
+        bookingService.update(addedUser2.getId(), bookingRespDto.getId(), false);
+        BookingRespDto rebookedRespDto = bookingService.add(addedUser1.getId(), bookingReqDto1);
+
+        assertEquals(BookingStatus.WAITING, rebookedRespDto.getStatus());
+    }
+
+    @Test
+    void whenBatchEntriesOverlap_thenAddAllCreatesFirstAndRejectsSecond() {
+        UserDto addedUser1 = userService.add(userDto1);
+        UserDto addedUser2 = userService.add(userDto2);
+        itemService.add(addedUser1.getId(), itemReqDto1);
+        itemService.add(addedUser2.getId(), itemReqDto2);
+        BookingReqDto ownItemReqDto = BookingReqDto.builder()
+                .itemId(1L)
+                .start(bookingReqDto2.getStart())
+                .end(bookingReqDto2.getEnd())
+                .build();
+
+        List<BookingBatchResultDto> results = bookingService.addAll(addedUser1.getId(),
+                List.of(bookingReqDto1, bookingReqDto1, bookingReqDto2, ownItemReqDto));
+
+        assertEquals(List.of(BookingBatchResultDto.Status.CREATED, BookingBatchResultDto.Status.REJECTED,
+                        BookingBatchResultDto.Status.CREATED, BookingBatchResultDto.Status.NOT_FOUND),
+                results.stream().map(BookingBatchResultDto::getStatus).collect(Collectors.toList()));
+        assertEquals("Item is already booked for the requested dates", results.get(1).getError());
+        assertEquals(2, bookingService.findAllByOwnerId(addedUser2.getId(),
+                BookingState.ALL.toString(), 0, 10).size());
+    }
+
+    @Test
+    void whenOwnerRejectsBookingsInBulk_thenDatesBecomeFree() {
+        UserDto addedUser1 = userService.add(userDto1);
+        UserDto addedUser2 = userService.add(userDto2);
+        itemService.add(addedUser1.getId(), itemReqDto1);
+        itemService.add(addedUser2.getId(), itemReqDto2);
+        BookingRespDto bookingRespDto1 = bookingService.add(addedUser1.getId(), bookingReqDto1);
+        BookingRespDto bookingRespDto2 = bookingService.add(addedUser1.getId(), bookingReqDto2);
+        bookingService.update(addedUser2.getId(), bookingRespDto2.getId(), true);
+        Set<Long> bookingIds = Set.of(bookingRespDto1.getId(), bookingRespDto2.getId());
+
+        assertThrows(ValidationException.class, () -> bookingService.updateAll(addedUser2.getId(),
+                new BookingApprovalReqDto(bookingIds, false)));
+        assertThrows(NotFoundException.class, () -> bookingService.updateAll(addedUser1.getId(),
+                new BookingApprovalReqDto(Set.of(bookingRespDto1.getId()), false)));
+
+        List<BookingRespDto> rejected = bookingService.updateAll(addedUser2.getId(),
+                new BookingApprovalReqDto(Set.of(bookingRespDto1.getId()), false));
+
+        assertEquals(BookingStatus.REJECTED, rejected.get(0).getStatus());
+        assertEquals(BookingStatus.REJECTED, bookingService.findByUserId(addedUser1.getId(),
+                bookingRespDto1.getId()).getStatus());
+        assertEquals(BookingStatus.APPROVED, bookingService.findByUserId(addedUser1.getId(),
+                bookingRespDto2.getId()).getStatus());
+        assertEquals(BookingStatus.WAITING, bookingService.add(addedUser1.getId(), bookingReqDto1).getStatus());
+    }
+
+    @Test
+    void whenOwnerExports_thenAllBookingsArriveNewestFirst() {
+        UserDto addedUser1 = userService.add(userDto1);
+        UserDto addedUser2 = userService.add(userDto2);
+        itemService.add(addedUser1.getId(), itemReqDto1);
+        itemService.add(addedUser2.getId(), itemReqDto2);
+        BookingRespDto bookingRespDto1 = bookingService.add(addedUser1.getId(), bookingReqDto1);
+        BookingRespDto bookingRespDto2 = bookingService.add(addedUser1.getId(), bookingReqDto2);
+        List<BookingRespDto> exported = new ArrayList<>();
+
+        bookingService.exportAllByOwnerId(addedUser2.getId(), exported::add);
+
+        assertEquals(List.of(bookingRespDto2.getId(), bookingRespDto1.getId()),
+                exported.stream().map(BookingRespDto::getId).collect(Collectors.toList()));
+        assertEquals(addedUser1.getId(), exported.get(0).getBooker().getId());
+        assertThrows(NotFoundException.class, () -> bookingService.exportAllByOwnerId(99L, exported::add));
+    }
+
     @Test
     void whenIdIsInvalid_thenThrowNotFoundException() {
         Long userId = 5L;
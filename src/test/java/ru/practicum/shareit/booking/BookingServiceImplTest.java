@@ -5,29 +5,57 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingApprovalReqDto;
+import ru.practicum.shareit.booking.dto.BookingBatchResultDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
 import ru.practicum.shareit.booking.dto.BookingReqDto;
 import ru.practicum.shareit.booking.dto.BookingRespDto;
+import ru.practicum.shareit.booking.dto.BookingStatsDto;
+import ru.practicum.shareit.booking.dto.BookingVersion;
+import ru.practicum.shareit.booking.dto.BookingView;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.lock.ItemLocks;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingCursor;
+import ru.practicum.shareit.booking.model.BookingRole;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemCache;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,6 +67,16 @@ public class BookingServiceImplTest {
     private ItemRepository itemRepository;
     @Mock
     private BookingRepository bookingRepository;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private ItemLocks itemLocks;
+    @Mock
+    private ItemCache itemCache;
+    @Mock
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
     @InjectMocks
     private BookingServiceImpl bookingService;
 
@@ -122,6 +160,20 @@ public class BookingServiceImplTest {
         assertEquals("Booking must end after start", bookingValidationException.getMessage());
     }
 
+    @Test
+    void whenBookingOverlaps_thenCreateThrowsValidationException() {
+        when(userService.findById(userDto.getId())).thenReturn(userDto);
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(bookingIntervalIndex.overlaps(item.getId(), bookingReqDto.getStart(), bookingReqDto.getEnd()))
+                .thenReturn(true);
+
+        ValidationException bookingValidationException = assertThrows(ValidationException.class,
+                () -> bookingService.add(userDto.getId(), bookingReqDto));
+
+        assertEquals("Item is already booked for the requested dates", bookingValidationException.getMessage());
+        verify(bookingRepository, never()).save(any(Booking.class));
+    }
+
     @Test
     void whenItemNotAvailable_thenCreateThrowsValidationException() {
         item.setAvailable(false);
@@ -146,24 +198,153 @@ public class BookingServiceImplTest {
         assertEquals("Item not found", notFoundException.getMessage());
     }
 
+    @Test
+    void whenBatchHasInvalidEntries_thenAddAllCreatesOnlyValidOnes() {
+        BookingReqDto unknownItemReqDto = BookingReqDto.builder()
+                .itemId(99L)
+                .start(LocalDateTime.now().plusDays(1L))
+                .end(LocalDateTime.now().plusDays(2L))
+                .build();
+        when(userService.findById(userDto.getId())).thenReturn(userDto);
+        when(itemRepository.findAllWithOwnerByIdIn(any())).thenReturn(List.of(item));
+        when(bookingRepository.save(any(Booking.class))).thenReturn(booking);
+
+        List<BookingBatchResultDto> results = bookingService.addAll(userDto.getId(),
+                List.of(bookingReqDto, bookingReqDtoStartAfterEnd, unknownItemReqDto));
+
+        assertEquals(3, results.size());
+        assertEquals(BookingBatchResultDto.Status.CREATED, results.get(0).getStatus());
+        assertEquals(BookingMapper.toBookingRespDto(booking), results.get(0).getBooking());
+        assertEquals(BookingBatchResultDto.Status.REJECTED, results.get(1).getStatus());
+        assertEquals("Booking must end after start", results.get(1).getError());
+        assertEquals(BookingBatchResultDto.Status.NOT_FOUND, results.get(2).getStatus());
+        assertEquals("No item with id=99 found", results.get(2).getError());
+        verify(userService, times(1)).findById(userDto.getId());
+        verify(itemRepository, never()).findById(anyLong());
+        verify(bookingRepository, times(1)).save(any(Booking.class));
+        verify(bookingIntervalIndex).add(booking);
+    }
+
+    @Test
+    void whenAllBookingsAreWaiting_thenUpdateAllRejectsThemWithOneUpdate() {
+        BookingApprovalReqDto bookingApprovalReqDto = new BookingApprovalReqDto(Set.of(waitingBooking.getId()), false);
+        when(bookingRepository.findAllWithItemByIdIn(bookingApprovalReqDto.getBookingIds()))
+                .thenReturn(List.of(waitingBooking));
+        when(bookingRepository.updateStatus(bookingApprovalReqDto.getBookingIds(), BookingStatus.WAITING,
+                BookingStatus.REJECTED)).thenReturn(1);
+
+        List<BookingRespDto> bookingRespDtos = bookingService.updateAll(owner.getId(), bookingApprovalReqDto);
+
+        assertEquals(1, bookingRespDtos.size());
+        assertEquals(BookingStatus.REJECTED, bookingRespDtos.get(0).getStatus());
+        verify(bookingIntervalIndex).remove(waitingBooking);
+        verify(bookingRepository, never()).save(any(Booking.class));
+        verify(itemCache, never()).evictOwnerViews(any());
+        verify(itemBookingSummaryRepository, never()).refresh(any(), any());
+    }
+
+    @Test
+    void whenAllBookingsAreWaiting_thenUpdateAllApprovesThemAndRefreshesSummaries() {
+        BookingApprovalReqDto bookingApprovalReqDto = new BookingApprovalReqDto(Set.of(waitingBooking.getId()), true);
+        when(bookingRepository.findAllWithItemByIdIn(bookingApprovalReqDto.getBookingIds()))
+                .thenReturn(List.of(waitingBooking));
+        when(bookingRepository.updateStatus(bookingApprovalReqDto.getBookingIds(), BookingStatus.WAITING,
+                BookingStatus.APPROVED)).thenReturn(1);
+
+        List<BookingRespDto> bookingRespDtos = bookingService.updateAll(owner.getId(), bookingApprovalReqDto);
+
+        assertEquals(BookingStatus.APPROVED, bookingRespDtos.get(0).getStatus());
+        verify(itemBookingSummaryRepository).refresh(eq(Set.of(item.getId())), any(LocalDateTime.class));
+        verify(itemCache).evictOwnerViews(Set.of(item.getId()));
+    }
+
+    @Test
+    void whenBookingIsMissingOrForeign_thenUpdateAllThrowsNotFoundException() {
+        BookingApprovalReqDto bookingApprovalReqDto = new BookingApprovalReqDto(Set.of(1L, 2L), true);
+        when(bookingRepository.findAllWithItemByIdIn(bookingApprovalReqDto.getBookingIds()))
+                .thenReturn(List.of(waitingBooking));
+
+        NotFoundException missingException = assertThrows(NotFoundException.class,
+                () -> bookingService.updateAll(owner.getId(), bookingApprovalReqDto));
+        assertEquals("Booking with id=2 not found", missingException.getMessage());
+
+        bookingApprovalReqDto.setBookingIds(Set.of(1L));
+        when(bookingRepository.findAllWithItemByIdIn(bookingApprovalReqDto.getBookingIds()))
+                .thenReturn(List.of(waitingBooking));
+
+        NotFoundException foreignException = assertThrows(NotFoundException.class,
+                () -> bookingService.updateAll(user.getId(), bookingApprovalReqDto));
+        assertEquals("User with id=1 is not the owner", foreignException.getMessage());
+        verify(bookingRepository, never()).updateStatus(any(), any(), any());
+    }
+
+    @Test
+    void whenBookingIsNotWaiting_thenUpdateAllThrowsValidationException() {
+        BookingApprovalReqDto bookingApprovalReqDto = new BookingApprovalReqDto(Set.of(booking.getId()), true);
+        when(bookingRepository.findAllWithItemByIdIn(bookingApprovalReqDto.getBookingIds()))
+                .thenReturn(List.of(booking));
+
+        ValidationException validationException = assertThrows(ValidationException.class,
+                () -> bookingService.updateAll(owner.getId(), bookingApprovalReqDto));
+
+        assertEquals("Booking with id=1 has no WAITING status", validationException.getMessage());
+        verify(bookingRepository, never()).updateStatus(any(), any(), any());
+    }
+
+    @Test
+    void whenBookingChangesConcurrently_thenUpdateAllThrowsValidationException() {
+        BookingApprovalReqDto bookingApprovalReqDto = new BookingApprovalReqDto(Set.of(waitingBooking.getId()), true);
+        when(bookingRepository.findAllWithItemByIdIn(bookingApprovalReqDto.getBookingIds()))
+                .thenReturn(List.of(waitingBooking));
+        when(bookingRepository.updateStatus(bookingApprovalReqDto.getBookingIds(), BookingStatus.WAITING,
+                BookingStatus.APPROVED)).thenReturn(0);
+
+        ValidationException validationException = assertThrows(ValidationException.class,
+                () -> bookingService.updateAll(owner.getId(), bookingApprovalReqDto));
+
+        assertEquals("Bookings were changed concurrently, please retry", validationException.getMessage());
+        assertEquals(BookingStatus.WAITING, waitingBooking.getStatus());
+    }
+
     @Test
     void whenApproved_thenUpdate() {
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(waitingBooking));
-        when(bookingRepository.save(any(Booking.class))).thenReturn(waitingBooking);
+        when(bookingRepository.updateStatus(List.of(waitingBooking.getId()), BookingStatus.WAITING,
+                BookingStatus.APPROVED)).thenReturn(1);
 
         BookingRespDto actualBookingRespDto = bookingService.update(owner.getId(), waitingBooking.getId(), true);
 
         assertEquals(BookingStatus.APPROVED, actualBookingRespDto.getStatus());
+        verify(itemLocks).lockUntilCompletion(item.getId());
+        verify(itemBookingSummaryRepository).refresh(eq(List.of(item.getId())), any(LocalDateTime.class));
+        verify(itemCache).evictOwnerViews(List.of(item.getId()));
     }
 
     @Test
     void whenNotApproved_thenUpdateWithRejected() {
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(waitingBooking));
-        when(bookingRepository.save(any(Booking.class))).thenReturn(waitingBooking);
+        when(bookingRepository.updateStatus(List.of(waitingBooking.getId()), BookingStatus.WAITING,
+                BookingStatus.REJECTED)).thenReturn(1);
 
         BookingRespDto actualBookingRespDto = bookingService.update(owner.getId(), waitingBooking.getId(), false);
 
         assertEquals(BookingStatus.REJECTED, actualBookingRespDto.getStatus());
+        verify(bookingIntervalIndex).remove(waitingBooking);
+        verify(itemCache, never()).evictOwnerViews(any());
+        verify(itemBookingSummaryRepository, never()).refresh(any(), any());
+    }
+
+    @Test
+    void whenStatusChangedConcurrently_thenUpdateThrowsValidationException() {
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(waitingBooking));
+        when(bookingRepository.updateStatus(List.of(waitingBooking.getId()), BookingStatus.WAITING,
+                BookingStatus.APPROVED)).thenReturn(0);
+
+        ValidationException validationException = assertThrows(ValidationException.class,
+                () -> bookingService.update(owner.getId(), waitingBooking.getId(), true));
+
+        assertEquals("Booking has no WAITING status", validationException.getMessage());
+        verify(bookingIntervalIndex, never()).remove(any(Booking.class));
     }
 
     @Test
@@ -196,6 +377,29 @@ public class BookingServiceImplTest {
         assertEquals("User with id=3 is not the booker or the owner", notFoundException.getMessage());
     }
 
+    @Test
+    void findETagCombinesVersionsAndBookerDetails() {
+        BookingVersion bookingVersion = mock(BookingVersion.class);
+        when(bookingVersion.getBookerId()).thenReturn(user.getId());
+        when(bookingVersion.getOwnerId()).thenReturn(owner.getId());
+        when(bookingVersion.getVersion()).thenReturn(2L);
+        when(bookingVersion.getItemVersion()).thenReturn(5L);
+        when(bookingVersion.getBookerName()).thenReturn(user.getName(), "renamed");
+        when(bookingVersion.getBookerEmail()).thenReturn(user.getEmail());
+        when(bookingRepository.findVersionById(booking.getId())).thenReturn(Optional.of(bookingVersion));
+
+        String eTag = bookingService.findETag(user.getId(), booking.getId());
+        String renamedETag = bookingService.findETag(owner.getId(), booking.getId());
+
+        assertTrue(eTag.startsWith("2-5-"), eTag);
+        assertTrue(renamedETag.startsWith("2-5-"), renamedETag);
+        assertNotEquals(eTag, renamedETag);
+        NotFoundException notFoundException = assertThrows(NotFoundException.class,
+                () -> bookingService.findETag(3L, booking.getId()));
+        assertEquals("User with id=3 is not the booker or the owner", notFoundException.getMessage());
+        verify(bookingRepository, never()).findById(any());
+    }
+
     @Test
     void whenBookingIsValid_thenFindById() {
         BookingRespDto expectedBookingRespDto = BookingMapper.toBookingRespDto(booking);
@@ -219,9 +423,9 @@ public class BookingServiceImplTest {
     @Test
     void whenBookingStateAll_thenFindAllByBookerId() {
         List<BookingRespDto> expectedBookingRespDtoList = List.of(BookingMapper.toBookingRespDto(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllBookingsByBookerId(anyLong(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findViewsByQuery(argThat(query -> query.getRole() == BookingRole.BOOKER
+                && query.getState() == BookingState.ALL)))
+                .thenReturn(List.of(toBookingView(booking)));
 
         List<BookingRespDto> actualBookingRespDtoList = bookingService.findAll(user.getId(), "ALL", 0, 10);
 
@@ -231,9 +435,8 @@ public class BookingServiceImplTest {
     @Test
     void whenBookingStateCurrent_thenFindAllByBookerId() {
         List<BookingRespDto> expectedBookingRespDtoList = List.of(BookingMapper.toBookingRespDto(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllCurrentBookingsByBookerId(anyLong(),
-                any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findViewsByQuery(argThat(query -> query.getRole() == BookingRole.BOOKER
+                && query.getState() == BookingState.CURRENT))).thenReturn(List.of(toBookingView(booking)));
 
         List<BookingRespDto> actualBookingRespDtoList = bookingService.findAll(user.getId(), "CURRENT", 0, 10);
 
@@ -243,9 +446,8 @@ public class BookingServiceImplTest {
     @Test
     void whenBookingStatePast_thenFindAllByBookerId() {
         List<BookingRespDto> expectedBookingRespDtoList = List.of(BookingMapper.toBookingRespDto(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllPastBookingsByBookerId(anyLong(),
-                any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findViewsByQuery(argThat(query -> query.getRole() == BookingRole.BOOKER
+                && query.getState() == BookingState.PAST))).thenReturn(List.of(toBookingView(booking)));
 
         List<BookingRespDto> actualBookingRespDtoList = bookingService.findAll(user.getId(), "PAST", 0, 10);
 
@@ -255,9 +457,8 @@ public class BookingServiceImplTest {
     @Test
     void whenBookingStateFuture_thenFindAllByBookerId() {
         List<BookingRespDto> expectedBookingRespDtoList = List.of(BookingMapper.toBookingRespDto(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllFutureBookingsByBookerId(anyLong(),
-                any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findViewsByQuery(argThat(query -> query.getRole() == BookingRole.BOOKER
+                && query.getState() == BookingState.FUTURE))).thenReturn(List.of(toBookingView(booking)));
 
         List<BookingRespDto> actualBookingRespDtoList = bookingService.findAll(user.getId(), "FUTURE", 0, 10);
 
@@ -267,9 +468,8 @@ public class BookingServiceImplTest {
     @Test
     void whenBookingStateWaiting_thenFindAllByBookerId() {
         List<BookingRespDto> expectedBookingRespDtoList = List.of(BookingMapper.toBookingRespDto(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllWaitingBookingsByBookerId(anyLong(),
-                any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findViewsByQuery(argThat(query -> query.getRole() == BookingRole.BOOKER
+                && query.getState() == BookingState.WAITING))).thenReturn(List.of(toBookingView(booking)));
 
         List<BookingRespDto> actualBookingRespDtoList = bookingService.findAll(user.getId(), "WAITING", 0, 10);
 
@@ -279,9 +479,8 @@ public class BookingServiceImplTest {
     @Test
     void whenBookingStateRejected_thenFindAllByBookerId() {
         List<BookingRespDto> expectedBookingRespDtoList = List.of(BookingMapper.toBookingRespDto(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllRejectedBookingsByBookerId(anyLong(),
-                any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findViewsByQuery(argThat(query -> query.getRole() == BookingRole.BOOKER
+                && query.getState() == BookingState.REJECTED))).thenReturn(List.of(toBookingView(booking)));
 
         List<BookingRespDto> actualBookingRespDtoList = bookingService.findAll(user.getId(), "REJECTED", 0, 10);
 
@@ -303,9 +502,9 @@ public class BookingServiceImplTest {
     @Test
     void whenBookingStateAll_thenFindAllByOwnerId() {
         List<BookingRespDto> expectedBookingRespDtoList = List.of(BookingMapper.toBookingRespDto(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllBookingsByOwnerId(anyLong(), any(Pageable.class)))
-                .thenReturn(List.of(booking));
+        when(bookingRepository.findViewsByQuery(argThat(query -> query.getRole() == BookingRole.OWNER
+                && query.getState() == BookingState.ALL)))
+                .thenReturn(List.of(toBookingView(booking)));
 
         List<BookingRespDto> actualBookingRespDtoList = bookingService
                 .findAllByOwnerId(user.getId(), "ALL", 0, 10);
@@ -316,9 +515,8 @@ public class BookingServiceImplTest {
     @Test
     void whenBookingStateCurrent_thenFindAllByOwnerId() {
         List<BookingRespDto> expectedBookingRespDtoList = List.of(BookingMapper.toBookingRespDto(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllCurrentBookingsByOwnerId(anyLong(),
-                any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findViewsByQuery(argThat(query -> query.getRole() == BookingRole.OWNER
+                && query.getState() == BookingState.CURRENT))).thenReturn(List.of(toBookingView(booking)));
 
         List<BookingRespDto> actualBookingRespDtoList = bookingService
                 .findAllByOwnerId(user.getId(), "CURRENT", 0, 10);
@@ -329,9 +527,8 @@ public class BookingServiceImplTest {
     @Test
     void whenBookingStatePast_thenFindAllByOwnerId() {
         List<BookingRespDto> expectedBookingRespDtoList = List.of(BookingMapper.toBookingRespDto(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllPastBookingsByOwnerId(anyLong(),
-                any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findViewsByQuery(argThat(query -> query.getRole() == BookingRole.OWNER
+                && query.getState() == BookingState.PAST))).thenReturn(List.of(toBookingView(booking)));
 
         List<BookingRespDto> actualBookingRespDtoList = bookingService
                 .findAllByOwnerId(user.getId(), "PAST", 0, 10);
@@ -342,9 +539,8 @@ public class BookingServiceImplTest {
     @Test
     void whenBookingStateFuture_thenFindAllByOwnerId() {
         List<BookingRespDto> expectedBookingRespDtoList = List.of(BookingMapper.toBookingRespDto(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllFutureBookingsByOwnerId(anyLong(),
-                any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findViewsByQuery(argThat(query -> query.getRole() == BookingRole.OWNER
+                && query.getState() == BookingState.FUTURE))).thenReturn(List.of(toBookingView(booking)));
 
         List<BookingRespDto> actualBookingRespDtoList = bookingService
                 .findAllByOwnerId(user.getId(), "FUTURE", 0, 10);
@@ -355,9 +551,8 @@ public class BookingServiceImplTest {
     @Test
     void whenBookingStateWaiting_thenFindAllByOwnerId() {
         List<BookingRespDto> expectedBookingRespDtoList = List.of(BookingMapper.toBookingRespDto(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllWaitingBookingsByOwnerId(anyLong(),
-                any(LocalDateTime.class), any(Pageable.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findViewsByQuery(argThat(query -> query.getRole() == BookingRole.OWNER
+                && query.getState() == BookingState.WAITING))).thenReturn(List.of(toBookingView(booking)));
 
         List<BookingRespDto> actualBookingRespDtoList = bookingService
                 .findAllByOwnerId(user.getId(), "WAITING", 0, 10);
@@ -368,13 +563,85 @@ public class BookingServiceImplTest {
     @Test
     void whenBookingStateRejected_thenFindAllByOwnerId() {
         List<BookingRespDto> expectedBookingRespDtoList = List.of(BookingMapper.toBookingRespDto(booking));
-        when(userService.findById(user.getId())).thenReturn(userDto);
-        when(bookingRepository.findAllRejectedBookingsByOwnerId(anyLong(),
-                any(Pageable.class))).thenReturn(List.of(booking));
+        when(bookingRepository.findViewsByQuery(argThat(query -> query.getRole() == BookingRole.OWNER
+                && query.getState() == BookingState.REJECTED))).thenReturn(List.of(toBookingView(booking)));
 
         List<BookingRespDto> actualBookingRespDtoList = bookingService
                 .findAllByOwnerId(user.getId(), "REJECTED", 0, 10);
 
         assertEquals(expectedBookingRespDtoList, actualBookingRespDtoList);
     }
+
+    @Test
+    void whenPageIsFull_thenFindAllByCursorReturnsNextCursor() {
+        when(bookingRepository.findViewsByQuery(argThat(query -> query.getRole() == BookingRole.BOOKER
+                && query.getUserId().equals(user.getId())
+                && query.getCursor() == null
+                && query.getSize() == 1))).thenReturn(List.of(toBookingView(booking)));
+
+        BookingPageDto actualPage = bookingService.findAllByCursor(user.getId(), "ALL", "", 1);
+
+        assertEquals(List.of(BookingMapper.toBookingRespDto(booking)), actualPage.getBookings());
+        assertEquals(BookingCursor.of(booking), BookingCursor.decode(actualPage.getNextCursor()));
+    }
+
+    @Test
+    void whenPageIsNotFull_thenFindAllByOwnerIdAndCursorReturnsNoNextCursor() {
+        BookingCursor cursor = BookingCursor.of(booking);
+        when(bookingRepository.findViewsByQuery(argThat(query -> query.getRole() == BookingRole.OWNER
+                && query.getState() == BookingState.FUTURE
+                && cursor.equals(query.getCursor())))).thenReturn(List.of(toBookingView(waitingBooking)));
+
+        BookingPageDto actualPage = bookingService
+                .findAllByOwnerIdAndCursor(owner.getId(), "FUTURE", cursor.encode(), 10);
+
+        assertEquals(1, actualPage.getBookings().size());
+        assertNull(actualPage.getNextCursor());
+    }
+
+    @Test
+    void whenCursorIsInvalid_thenFindAllByCursorThrowsValidationException() {
+        ValidationException validationException = assertThrows(ValidationException.class,
+                () -> bookingService.findAllByCursor(user.getId(), "ALL", "not-a-cursor", 10));
+
+        assertEquals("Invalid cursor: not-a-cursor", validationException.getMessage());
+    }
+
+    @Test
+    void whenStatsRequested_thenCountAllStatesWithOneQuery() {
+        Map<BookingState, Long> counts = new EnumMap<>(BookingState.class);
+        for (BookingState state : BookingState.values()) {
+            counts.put(state, (long) state.ordinal() + 1);
+        }
+        when(bookingRepository.countByState(argThat(query -> query.getRole() == BookingRole.OWNER
+                && query.getUserId().equals(owner.getId())))).thenReturn(counts);
+
+        BookingStatsDto bookingStatsDto = bookingService.findStatsByOwnerId(owner.getId());
+
+        assertEquals(new BookingStatsDto(1L, 2L, 3L, 4L, 5L, 6L), bookingStatsDto);
+        verify(userService).checkExists(owner.getId());
+        verify(bookingRepository, never()).findViewsByQuery(any());
+    }
+
+    @Test
+    void whenOwnerExports_thenEveryBookingIsPassedOnFromTheCursor() {
+        when(bookingRepository.streamViewsByQuery(argThat(query -> query.getRole() == BookingRole.OWNER
+                && query.getState() == BookingState.ALL && query.getUserId().equals(owner.getId())), anyInt()))
+                .thenReturn(Stream.of(toBookingView(booking), toBookingView(waitingBooking)));
+        List<BookingRespDto> exported = new ArrayList<>();
+
+        bookingService.exportAllByOwnerId(owner.getId(), exported::add);
+
+        assertEquals(List.of(BookingMapper.toBookingRespDto(toBookingView(booking)),
+                BookingMapper.toBookingRespDto(toBookingView(waitingBooking))), exported);
+        verify(userService).checkExists(owner.getId());
+    }
+
+    private BookingView toBookingView(Booking booking) {
+        Item item = booking.getItem();
+        User booker = booking.getBooker();
+        return new BookingView(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus().name(),
+                item.getId(), item.getName(), item.getDescription(), item.getAvailable(), null,
+                booker.getId(), booker.getName(), booker.getEmail());
+    }
 }
@@ -0,0 +1,84 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.index.IntervalTree;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class IntervalTreeTest {
+    private final LocalDateTime base = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+    @Test
+    void whenIntervalsTouch_thenNoOverlap() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1L, base, base.plusHours(2));
+
+        assertFalse(tree.overlaps(base.plusHours(2), base.plusHours(3), 0L));
+        assertFalse(tree.overlaps(base.minusHours(1), base, 0L));
+        assertTrue(tree.overlaps(base.plusHours(1), base.plusHours(3), 0L));
+        assertFalse(tree.overlaps(base.plusHours(1), base.plusHours(3), 1L));
+    }
+
+    @Test
+    void whenRemoved_thenIntervalIsFree() {
+        IntervalTree tree = new IntervalTree();
+        tree.insert(1L, base, base.plusHours(2));
+        tree.insert(2L, base.plusHours(4), base.plusHours(6));
+
+        assertTrue(tree.remove(1L, base));
+        assertFalse(tree.remove(1L, base));
+        assertEquals(1, tree.size());
+        assertFalse(tree.overlaps(base, base.plusHours(3), 0L));
+        assertTrue(tree.overlaps(base, base.plusHours(5), 0L));
+    }
+
+    @Test
+    void whenIntervalsEnded_thenRemoveEndedByDropsOnlyThem() {
+        IntervalTree tree = new IntervalTree();
+        for (long id = 1; id <= 10; id++) {
+            tree.insert(id, base.plusHours(id), base.plusHours(id + 2));
+        }
+
+        assertEquals(3, tree.removeEndedBy(base.plusHours(5)));
+        assertEquals(7, tree.size());
+        assertFalse(tree.contains(3L, base.plusHours(3)));
+        assertTrue(tree.contains(4L, base.plusHours(4)));
+        assertTrue(tree.overlaps(base.plusHours(5), base.plusHours(6), 0L));
+        assertFalse(tree.overlaps(base, base.plusHours(4), 0L));
+        assertEquals(0, tree.removeEndedBy(base.plusHours(5)));
+    }
+
+    @Test
+    void overlapsMatchesLinearScan() {
+        Random random = new Random(42);
+        IntervalTree tree = new IntervalTree();
+        List<long[]> intervals = new ArrayList<>();
+
+        for (long id = 1; id <= 2_000; id++) {
+            long start = random.nextInt(100_000);
+            long end = start + 1 + random.nextInt(200);
+            tree.insert(id, base.plusMinutes(start), base.plusMinutes(end));
+            intervals.add(new long[]{id, start, end});
+        }
+        for (int i = 0; i < 700; i++) {
+            long[] removed = intervals.remove(random.nextInt(intervals.size()));
+            assertTrue(tree.remove(removed[0], base.plusMinutes(removed[1])));
+        }
+
+        for (int i = 0; i < 2_000; i++) {
+            long start = random.nextInt(100_000);
+            long end = start + 1 + random.nextInt(200);
+            boolean expected = intervals.stream().anyMatch(interval -> interval[1] < end && start < interval[2]);
+
+            assertEquals(expected, tree.overlaps(base.plusMinutes(start), base.plusMinutes(end), 0L));
+        }
+        assertEquals(intervals.size(), tree.size());
+    }
+}
@@ -0,0 +1,139 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.dto.ItemBookingSummaryView;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingSummary;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.User;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@DirtiesContext(classMode = DirtiesContext.ClassMode.BEFORE_EACH_TEST_METHOD)
+public class ItemBookingSummaryRepositoryTest {
+    @Autowired
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+    @Autowired
+    private TestEntityManager testEntityManager;
+
+    private final LocalDateTime now = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    private final User user = User.builder()
+            .name("user")
+            .email("user@mail.com")
+            .build();
+
+    private final User owner = User.builder()
+            .name("owner")
+            .email("owner@mail.com")
+            .build();
+
+    private final Item item = Item.builder()
+            .name("item")
+            .description("description")
+            .available(true)
+            .owner(owner)
+            .build();
+
+    private final Item otherItem = Item.builder()
+            .name("other item")
+            .description("other description")
+            .available(true)
+            .owner(owner)
+            .build();
+
+    private Booking currentBooking;
+    private Booking nextBooking;
+
+    @BeforeEach
+    void init() {
+        testEntityManager.persist(user);
+        testEntityManager.persist(owner);
+        testEntityManager.persist(item);
+        testEntityManager.persist(otherItem);
+        persistBooking(BookingStatus.APPROVED, now.minusDays(2L));
+        currentBooking = persistBooking(BookingStatus.APPROVED, now.minusHours(1L));
+        nextBooking = persistBooking(BookingStatus.APPROVED, now.plusDays(1L));
+        persistBooking(BookingStatus.APPROVED, now.plusDays(3L));
+        persistBooking(BookingStatus.WAITING, now.plusHours(1L));
+        persistBooking(BookingStatus.REJECTED, now.minusMinutes(1L));
+        testEntityManager.flush();
+    }
+
+    @Test
+    void refreshRecordsLastAndNextApprovedBookings() {
+        assertEquals(2, itemBookingSummaryRepository.refresh(List.of(item.getId(), otherItem.getId()), now));
+        testEntityManager.clear();
+
+        ItemBookingSummary summary = itemBookingSummaryRepository.findById(item.getId()).orElseThrow();
+        ItemBookingSummary otherSummary = itemBookingSummaryRepository.findById(otherItem.getId()).orElseThrow();
+
+        assertEquals(currentBooking.getId(), summary.getLastBookingId());
+        assertEquals(nextBooking.getId(), summary.getNextBookingId());
+        assertEquals(4L, summary.getApprovedCount());
+        assertEquals(currentBooking.getStart(), summary.getLastBookedAt());
+        assertEquals(nextBooking.getStart(), summary.getNextStart());
+        assertNull(otherSummary.getLastBookingId());
+        assertNull(otherSummary.getNextBookingId());
+        assertEquals(0L, otherSummary.getApprovedCount());
+    }
+
+    @Test
+    void whenNextBookingStarts_thenSummaryIsFoundAndRolledForward() {
+        itemBookingSummaryRepository.refresh(List.of(item.getId()), now);
+        LocalDateTime later = nextBooking.getStart().plusMinutes(1L);
+
+        assertEquals(List.of(), itemBookingSummaryRepository.findItemIdsByNextStartBefore(now, PageRequest.of(0, 10)));
+        assertEquals(List.of(item.getId()),
+                itemBookingSummaryRepository.findItemIdsByNextStartBefore(later, PageRequest.of(0, 10)));
+
+        assertEquals(1, itemBookingSummaryRepository.refresh(List.of(item.getId()), later));
+        testEntityManager.clear();
+        ItemBookingSummary summary = itemBookingSummaryRepository.findById(item.getId()).orElseThrow();
+
+        assertEquals(nextBooking.getId(), summary.getLastBookingId());
+        assertEquals(4L, summary.getApprovedCount());
+        assertTrue(summary.getNextStart().isAfter(later));
+    }
+
+    @Test
+    void findBookingsByItemIdInJoinsRecordedBookingsWithBookers() {
+        itemBookingSummaryRepository.refresh(List.of(item.getId(), otherItem.getId()), now);
+
+        Map<Boolean, ItemBookingSummaryView> bookings = itemBookingSummaryRepository
+                .findBookingsByItemIdIn(List.of(item.getId(), otherItem.getId())).stream()
+                .collect(Collectors.toMap(ItemBookingSummaryView::getNext, booking -> booking));
+
+        assertEquals(2, bookings.size());
+        assertEquals(currentBooking.getId(), bookings.get(false).getId());
+        assertEquals(nextBooking.getId(), bookings.get(true).getId());
+        assertEquals(item.getId(), bookings.get(true).getItemId());
+        assertEquals("user", bookings.get(true).getBookerName());
+    }
+
+    private Booking persistBooking(BookingStatus status, LocalDateTime start) {
+        return testEntityManager.persist(Booking.builder()
+                .item(item)
+                .booker(user)
+                .status(status)
+                .start(start)
+                .end(start.plusHours(2L))
+                .build());
+    }
+}
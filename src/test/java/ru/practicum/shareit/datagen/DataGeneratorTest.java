@@ -0,0 +1,131 @@
+package ru.practicum.shareit.datagen;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The generator restarts the id sequences, which commits in H2, so it runs outside the test
+ * transaction and the tables are emptied after every test.
+ */
+@DataJpaTest
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class DataGeneratorTest {
+    private static final List<String> TABLES = List.of("comments", "bookings", "items", "requests", "users");
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @AfterEach
+    void clear() {
+        jdbcTemplate.update("DELETE FROM item_booking_summary");
+        TABLES.forEach(table -> {
+            jdbcTemplate.update("DELETE FROM " + table);
+            jdbcTemplate.execute("ALTER SEQUENCE " + table + "_seq RESTART WITH 50");
+        });
+    }
+
+    @Test
+    void generatesRequestedRowCounts() {
+        generator(properties(7)).generate();
+
+        assertEquals(50, count("users"));
+        assertEquals(20, count("requests"));
+        assertEquals(500, count("items"));
+        assertEquals(2_000, count("bookings"));
+        assertEquals(300, count("comments"));
+        assertEquals(0, count("bookings b JOIN items i ON i.id = b.item_id WHERE b.booker_id = i.owner_id"));
+        assertEquals(0, count("items i WHERE i.comment_count <> (SELECT COUNT(*) FROM comments c WHERE c.item_id = i.id)"));
+        assertEquals(count("(SELECT DISTINCT item_id FROM bookings WHERE status = 'APPROVED')"),
+                count("item_booking_summary"));
+        assertEquals(0, count("item_booking_summary s WHERE s.approved_count <> "
+                + "(SELECT COUNT(*) FROM bookings b WHERE b.item_id = s.item_id AND b.status = 'APPROVED')"));
+    }
+
+    @Test
+    void sameSeedGeneratesSameRows() {
+        generator(properties(7)).generate();
+        List<Map<String, Object>> items = jdbcTemplate.queryForList("SELECT * FROM items ORDER BY id");
+        List<Map<String, Object>> bookings = jdbcTemplate.queryForList("SELECT * FROM bookings ORDER BY id");
+        clear();
+
+        generator(properties(7)).generate();
+        assertEquals(items, jdbcTemplate.queryForList("SELECT * FROM items ORDER BY id"));
+        assertEquals(bookings, jdbcTemplate.queryForList("SELECT * FROM bookings ORDER BY id"));
+        clear();
+
+        generator(properties(8)).generate();
+        assertNotEquals(items, jdbcTemplate.queryForList("SELECT * FROM items ORDER BY id"));
+    }
+
+    @Test
+    void ownersAndItemsAreSkewed() {
+        generator(properties(7)).generate();
+
+        Integer topOwnerItems = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM items GROUP BY owner_id ORDER BY COUNT(*) DESC LIMIT 1", Integer.class);
+        Integer topItemBookings = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM bookings GROUP BY item_id ORDER BY COUNT(*) DESC LIMIT 1", Integer.class);
+        assertTrue(topOwnerItems > 10 * 500 / 50, "top owner has " + topOwnerItems + " items");
+        assertTrue(topItemBookings > 10 * 2_000 / 500, "top item has " + topItemBookings + " bookings");
+    }
+
+    @Test
+    void newRowsDoNotCollideWithGeneratedIds() {
+        generator(properties(7)).generate();
+
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('new', 'new@mail.com')");
+
+        assertEquals(100L, jdbcTemplate.queryForObject("SELECT id FROM users WHERE name = 'new'", Long.class));
+        assertEquals(150L, jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR users_seq", Long.class));
+    }
+
+    @Test
+    void refusesToGenerateIntoNonEmptyTables() {
+        jdbcTemplate.update("INSERT INTO users (name, email) VALUES ('user', 'user@mail.com')");
+
+        IllegalStateException exception = assertThrows(IllegalStateException.class,
+                () -> generator(properties(7)).generate());
+
+        assertEquals("Data can only be generated into empty tables", exception.getMessage());
+    }
+
+    private DataGenerator generator(DataGeneratorProperties properties) {
+        return new DataGenerator(jdbcTemplate, new TransactionTemplate(transactionManager), properties);
+    }
+
+    private DataGeneratorProperties properties(long seed) {
+        DataGeneratorProperties properties = new DataGeneratorProperties();
+        properties.setSeed(seed);
+        properties.setReferenceDate(LocalDate.of(2024, 1, 1));
+        properties.setUsers(50);
+        properties.setRequests(20);
+        properties.setItems(500);
+        properties.setBookings(2_000);
+        properties.setComments(300);
+        properties.setBatchSize(64);
+        return properties;
+    }
+
+    private int count(String from) {
+        Integer count = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + from, Integer.class);
+        return count == null ? 0 : count;
+    }
+}
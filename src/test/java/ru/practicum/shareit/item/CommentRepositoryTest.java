@@ -6,7 +6,9 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
 import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.item.dto.CommentView;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
@@ -14,6 +16,7 @@ import ru.practicum.shareit.user.User;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -60,9 +63,75 @@ public class CommentRepositoryTest {
 
     @Test
     void findAllByItemId() {
-        List<Comment> comments = commentRepository.findAllByItemId(1L);
+        List<Comment> comments = commentRepository.findAllByItemId(item.getId(), PageRequest.of(0, 10));
 
         assertEquals(comments.size(), 1);
         assertEquals(comments.get(0).getText(), "comment");
     }
+
+    @Test
+    void whenPagingWithCursor_thenCommentsComeNewestFirstWithoutGaps() {
+        LocalDateTime created = LocalDateTime.of(2030, 1, 1, 12, 0);
+        Comment older = saveComment("older", created.minusHours(1L));
+        Comment sameTime1 = saveComment("same time 1", created);
+        Comment sameTime2 = saveComment("same time 2", created);
+
+        List<Comment> firstPage = commentRepository.findAllByItemId(item.getId(), PageRequest.of(0, 2));
+        Comment last = firstPage.get(firstPage.size() - 1);
+        List<Comment> secondPage = commentRepository.findAllByItemIdAfter(
+                item.getId(), last.getCreated(), last.getId(), PageRequest.of(0, 2));
+
+        assertEquals(List.of(sameTime2.getId(), sameTime1.getId()), ids(firstPage));
+        assertEquals(List.of(older.getId(), comment.getId()), ids(secondPage));
+    }
+
+    @Test
+    void findNewestByItemIdInReturnsAtMostLimitCommentsPerItem() {
+        Item otherItem = testEntityManager.persist(Item.builder()
+                .name("other")
+                .description("other")
+                .available(true)
+                .owner(user)
+                .build());
+        LocalDateTime created = LocalDateTime.of(2030, 1, 1, 12, 0);
+        Comment newest = saveComment("newest", created);
+        saveComment("oldest", created.minusYears(20L));
+        Comment otherComment = commentRepository.save(Comment.builder()
+                .item(otherItem)
+                .author(user)
+                .text("other")
+                .build());
+
+        List<CommentView> comments = commentRepository.findNewestByItemIdIn(List.of(item.getId(), otherItem.getId()), 2);
+
+        assertEquals(List.of(newest.getId(), comment.getId(), otherComment.getId()), comments.stream()
+                .map(CommentView::getId)
+                .collect(Collectors.toList()));
+        assertEquals("user", comments.get(0).getAuthorName());
+        assertEquals(item.getId(), comments.get(0).getItemId());
+    }
+
+    /**
+     * Saves a comment created at the given time, which {@code @CreationTimestamp} would otherwise overwrite.
+     */
+    private Comment saveComment(String text, LocalDateTime created) {
+        Comment saved = commentRepository.saveAndFlush(Comment.builder()
+                .item(item)
+                .author(user)
+                .text(text)
+                .build());
+        testEntityManager.getEntityManager()
+                .createQuery("update Comment as c set c.created = :created where c.id = :id")
+                .setParameter("created", created)
+                .setParameter("id", saved.getId())
+                .executeUpdate();
+        testEntityManager.clear();
+        return saved;
+    }
+
+    private List<Long> ids(List<Comment> comments) {
+        return comments.stream()
+                .map(Comment::getId)
+                .collect(Collectors.toList());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.search.InvertedIndex;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class InvertedIndexTest {
+
+    @Test
+    void whenTermIsMoreFrequent_thenDocumentRanksHigher() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1L, List.of("cordless", "drill", "with", "battery"));
+        index.put(2L, List.of("drill", "drill", "bits", "set"));
+        index.put(3L, List.of("garden", "saw"));
+
+        assertEquals(List.of(2L, 1L), index.search(List.of("drill"), 0, 10));
+    }
+
+    @Test
+    void whenTermIsRarer_thenItWeighsMore() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1L, List.of("red", "drill"));
+        index.put(2L, List.of("red", "saw"));
+        index.put(3L, List.of("red", "hammer"));
+
+        assertEquals(List.of(1L, 2L, 3L), index.search(List.of("red", "drill"), 0, 10));
+    }
+
+    @Test
+    void whenQueryTermIsPrefix_thenLongerTermsMatchOncePerQueryTerm() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1L, List.of("battery", "batteries"));
+        index.put(2L, List.of("bat"));
+        index.put(3L, List.of("tent"));
+
+        assertEquals(List.of(2L, 1L), index.search(List.of("bat"), 0, 10));
+        assertEquals(List.of(1L), index.search(List.of("batt"), 0, 10));
+        assertEquals(List.of(), index.search(List.of("batteryx"), 0, 10));
+    }
+
+    @Test
+    void whenPaged_thenOffsetAndLimitApply() {
+        InvertedIndex index = new InvertedIndex();
+        for (long id = 1; id <= 5; id++) {
+            index.put(id, List.of("item"));
+        }
+
+        assertEquals(List.of(3L, 4L), index.search(List.of("item"), 2, 2));
+    }
+
+    @Test
+    void whenDocumentIsReplacedOrRemoved_thenOldTermsAreGone() {
+        InvertedIndex index = new InvertedIndex();
+        index.put(1L, List.of("drill"));
+        index.put(1L, List.of("saw"));
+
+        assertEquals(List.of(), index.search(List.of("drill"), 0, 10));
+        assertEquals(List.of(1L), index.search(List.of("saw"), 0, 10));
+
+        assertTrue(index.remove(1L));
+        assertFalse(index.remove(1L));
+        assertFalse(index.contains(1L));
+        assertEquals(0, index.size());
+        assertEquals(List.of(), index.search(List.of("saw"), 0, 10));
+    }
+}
@@ -0,0 +1,95 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingRespDto;
+import ru.practicum.shareit.item.dto.ItemRespDto;
+import ru.practicum.shareit.item.service.ItemCache;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+public class ItemCacheTest {
+    private final ItemCache itemCache = new ItemCache(100L, Duration.ofMinutes(10L));
+    private final LocalDateTime nextStart = LocalDateTime.of(2030, 1, 1, 12, 0);
+
+    @Test
+    void whenNextBookingStarts_thenOwnerViewIsDropped() {
+        ItemRespDto ownerView = ownerView(1L, nextStart);
+        itemCache.putOwnerView(1L, ownerView);
+
+        assertSame(ownerView, itemCache.getOwnerView(1L, 1L, nextStart.minusSeconds(1L)));
+        assertNull(itemCache.getOwnerView(1L, 1L, nextStart));
+        assertNull(itemCache.getOwnerView(1L, 1L, nextStart.minusSeconds(1L)));
+    }
+
+    @Test
+    void whenNoNextBooking_thenOwnerViewIsKept() {
+        ItemRespDto ownerView = ownerView(1L, null);
+        itemCache.putOwnerView(1L, ownerView);
+
+        assertSame(ownerView, itemCache.getOwnerView(1L, 1L, nextStart.plusYears(10L)));
+    }
+
+    @Test
+    void whenOwnerViewsAreEvicted_thenOtherViewIsKept() {
+        ItemRespDto view = ItemRespDto.builder().id(1L).name("item").build();
+        ItemCache.CachedItem cachedItem = new ItemCache.CachedItem(1L, view);
+        itemCache.put(cachedItem);
+        itemCache.putOwnerView(1L, ownerView(1L, null));
+        itemCache.putOwnerView(1L, ownerView(2L, null));
+
+        itemCache.evictOwnerViews(List.of(1L));
+
+        assertSame(cachedItem, itemCache.get(1L, 1L));
+        assertNull(itemCache.getOwnerView(1L, 1L, nextStart));
+        assertEquals(2L, itemCache.getOwnerView(2L, 1L, nextStart).getId());
+    }
+
+    @Test
+    void whenItemIsEvicted_thenBothViewsAreDropped() {
+        itemCache.put(new ItemCache.CachedItem(1L, ItemRespDto.builder().id(1L).build()));
+        itemCache.putOwnerView(1L, ownerView(1L, null));
+
+        itemCache.evict(1L);
+
+        assertNull(itemCache.get(1L, 1L));
+        assertNull(itemCache.getOwnerView(1L, 1L, nextStart));
+    }
+
+    @Test
+    void whenVersionDiffers_thenViewsAreNotServed() {
+        ItemCache.CachedItem cachedItem = new ItemCache.CachedItem(2L, ItemRespDto.builder().id(1L).build());
+        itemCache.put(cachedItem);
+        itemCache.putOwnerView(2L, ownerView(1L, null));
+
+        assertSame(cachedItem, itemCache.get(1L, 2L));
+        assertNull(itemCache.get(1L, 3L));
+        assertNull(itemCache.getOwnerView(1L, 3L, nextStart));
+    }
+
+    @Test
+    void whenOlderVersionIsPut_thenNewerViewsAreKept() {
+        ItemCache.CachedItem cachedItem = new ItemCache.CachedItem(2L, ItemRespDto.builder().id(1L).build());
+        ItemRespDto ownerView = ownerView(1L, null);
+        itemCache.put(cachedItem);
+        itemCache.putOwnerView(2L, ownerView);
+
+        itemCache.put(new ItemCache.CachedItem(1L, ItemRespDto.builder().id(1L).name("old").build()));
+        itemCache.putOwnerView(1L, ownerView(1L, nextStart));
+
+        assertSame(cachedItem, itemCache.get(1L, 2L));
+        assertSame(ownerView, itemCache.getOwnerView(1L, 2L, nextStart));
+    }
+
+    private ItemRespDto ownerView(Long itemId, LocalDateTime nextBookingStart) {
+        BookingRespDto nextBooking = nextBookingStart == null
+                ? null
+                : BookingRespDto.builder().id(10L).start(nextBookingStart).end(nextBookingStart.plusHours(1L)).build();
+        return ItemRespDto.builder().id(itemId).name("item").nextBooking(nextBooking).build();
+    }
+}
@@ -8,20 +8,30 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import ru.practicum.shareit.item.dto.CommentPageDto;
 import ru.practicum.shareit.item.dto.CommentReqDto;
 import ru.practicum.shareit.item.dto.CommentRespDto;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemReqDto;
 import ru.practicum.shareit.item.dto.ItemRespDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.dto.TaggedItem;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.User;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.item.ItemController.USER_HEADER;
 
@@ -139,7 +149,7 @@ public class ItemControllerTest {
                 .available(true)
                 .build();
 
-        when(itemService.findById(userId, itemId)).thenReturn(itemRespDto);
+        when(itemService.findTaggedById(eq(userId), eq(itemId), any())).thenReturn(new TaggedItem("0", itemRespDto));
 
         String result = mockMvc.perform(MockMvcRequestBuilders.get("/items/{itemId}", itemId)
                         .header(USER_HEADER, userId)
@@ -153,6 +163,37 @@ public class ItemControllerTest {
         assertEquals(objectMapper.writeValueAsString(itemRespDto), result);
     }
 
+    @Test
+    @SneakyThrows
+    void whenETagMatches_thenFindByIdAnswersNotModified() {
+        Long userId = 1L;
+        Long itemId = 1L;
+        ItemRespDto itemRespDto = ItemRespDto.builder()
+                .id(itemId)
+                .name("item")
+                .description("description")
+                .available(true)
+                .build();
+        when(itemService.findTaggedById(eq(userId), eq(itemId), any())).thenAnswer(invocation -> {
+            Predicate<String> notModified = invocation.getArgument(2);
+            return new TaggedItem("3", notModified.test("3") ? null : itemRespDto);
+        });
+
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header(USER_HEADER, userId))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+        mockMvc.perform(get("/items/{itemId}", itemId)
+                        .header(USER_HEADER, userId)
+                        .header("If-None-Match", "\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+
+        verify(itemService, times(2)).findTaggedById(eq(userId), eq(itemId), any());
+        verify(itemService, never()).findById(any(), any());
+    }
+
     @Test
     @SneakyThrows
     void whenGetAll_thenReturnOk() {
@@ -203,6 +244,118 @@ public class ItemControllerTest {
         assertEquals(objectMapper.writeValueAsString(expectedItemRespDtoList), result);
     }
 
+    @Test
+    @SneakyThrows
+    void whenSuggest_thenReturnOk() {
+        List<ItemSuggestionDto> expectedSuggestions = List.of(new ItemSuggestionDto(1L, "item"));
+
+        when(itemService.suggest(user.getId(), "it", 5)).thenReturn(expectedSuggestions);
+
+        String result = mockMvc.perform(get("/items/suggest")
+                        .header(USER_HEADER, user.getId())
+                        .param("prefix", "it")
+                        .param("size", "5"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(expectedSuggestions), result);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenSuggestSizeIsTooLarge_thenReturnBadRequest() {
+        mockMvc.perform(get("/items/suggest")
+                        .header(USER_HEADER, user.getId())
+                        .param("prefix", "it")
+                        .param("size", "100"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).suggest(anyLong(), anyString(), anyInt());
+    }
+
+    @Test
+    @SneakyThrows
+    void whenIdsAreGiven_thenFindAllByIds() {
+        List<ItemRespDto> items = List.of(ItemRespDto.builder().id(2L).name("second").build(),
+                ItemRespDto.builder().id(1L).name("first").build());
+        when(itemService.findAllByIds(user.getId(), List.of(2L, 1L))).thenReturn(items);
+
+        String result = mockMvc.perform(get("/items")
+                        .header(USER_HEADER, user.getId())
+                        .param("ids", "2,1"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(items), result);
+        verify(itemService, never()).findAll(anyLong(), anyInt(), anyInt());
+    }
+
+    @Test
+    @SneakyThrows
+    void whenIdsAreEmptyOrTooMany_thenReturnBadRequest() {
+        String tooMany = LongStream.rangeClosed(1, ItemController.MAX_IDS + 1)
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(","));
+
+        mockMvc.perform(get("/items")
+                        .header(USER_HEADER, user.getId())
+                        .param("ids", ""))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/items")
+                        .header(USER_HEADER, user.getId())
+                        .param("ids", tooMany))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/items")
+                        .header(USER_HEADER, user.getId())
+                        .param("ids", "1,x"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).findAllByIds(anyLong(), any());
+    }
+
+    @Test
+    @SneakyThrows
+    void whenAvailabilityWindowIsGiven_thenReturnFreeSlots() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(7L);
+        List<FreeSlotDto> freeSlots = List.of(new FreeSlotDto(from, from.plusDays(1L)),
+                new FreeSlotDto(from.plusDays(3L), to));
+
+        when(itemService.findAvailability(user.getId(), item.getId(), from, to)).thenReturn(freeSlots);
+
+        String result = mockMvc.perform(get("/items/{itemId}/availability", item.getId())
+                        .header(USER_HEADER, user.getId())
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "2030-01-08T00:00:00"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(freeSlots), result);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenAvailabilityWindowIsMissingOrMalformed_thenReturnBadRequest() {
+        mockMvc.perform(get("/items/{itemId}/availability", item.getId())
+                        .header(USER_HEADER, user.getId())
+                        .param("from", "2030-01-01T00:00:00"))
+                .andExpect(status().isBadRequest());
+
+        mockMvc.perform(get("/items/{itemId}/availability", item.getId())
+                        .header(USER_HEADER, user.getId())
+                        .param("from", "2030-01-01T00:00:00")
+                        .param("to", "next week"))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).findAvailability(anyLong(), anyLong(), any(), any());
+    }
+
     @Test
     @SneakyThrows
     void whenCommentIsValid_thenCreateReturnsOk() {
@@ -231,6 +384,42 @@ public class ItemControllerTest {
         assertEquals(objectMapper.writeValueAsString(commentRespDto), result);
     }
 
+    @Test
+    @SneakyThrows
+    void whenCursorIsGiven_thenFindCommentsReturnsPage() {
+        CommentPageDto commentPageDto = CommentPageDto.builder()
+                .comments(List.of(CommentRespDto.builder().id(1L).itemId(item.getId()).text("comment").build()))
+                .nextCursor("next")
+                .build();
+        when(itemService.findComments(user.getId(), item.getId(), "cursor", 1)).thenReturn(commentPageDto);
+
+        String result = mockMvc.perform(get("/items/{itemId}/comments", item.getId())
+                        .header(USER_HEADER, user.getId())
+                        .param("cursor", "cursor")
+                        .param("size", "1"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(commentPageDto), result);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenCommentPageSizeIsInvalid_thenReturnBadRequest() {
+        mockMvc.perform(get("/items/{itemId}/comments", item.getId())
+                        .header(USER_HEADER, user.getId())
+                        .param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/items/{itemId}/comments", item.getId())
+                        .header(USER_HEADER, user.getId())
+                        .param("size", String.valueOf(ItemController.MAX_COMMENTS + 1)))
+                .andExpect(status().isBadRequest());
+
+        verify(itemService, never()).findComments(anyLong(), anyLong(), any(), anyInt());
+    }
+
     @Test
     @SneakyThrows
     void whenPageIsInvalid_thenFindAllReturnsBadRequest() {
@@ -5,23 +5,37 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingReqDto;
 import ru.practicum.shareit.booking.dto.BookingRespDto;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.ItemBookingSummarySweeper;
+import ru.practicum.shareit.item.dto.CommentPageDto;
 import ru.practicum.shareit.item.dto.CommentReqDto;
 import ru.practicum.shareit.item.dto.CommentRespDto;
 import ru.practicum.shareit.item.dto.ItemReqDto;
 import ru.practicum.shareit.item.dto.ItemRespDto;
+import ru.practicum.shareit.item.dto.TaggedItem;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.request.dto.ItemRequestReqDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 
@@ -38,6 +52,12 @@ public class ItemServiceIT {
     private ItemRequestService itemRequestService;
     @Autowired
     private BookingService bookingService;
+    @Autowired
+    private EntityManager entityManager;
+    @Autowired
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+    @Autowired
+    private ItemBookingSummarySweeper itemBookingSummarySweeper;
 
     private final UserDto userDto1 = UserDto.builder()
             .name("user1")
@@ -99,6 +119,59 @@ public class ItemServiceIT {
         assertEquals("comment", commentRespDto.getText());
     }
 
+    @Test
+    @SneakyThrows
+    void whenBookingIsApprovedOrCommented_thenCachedItemViewsAreRefreshed() {
+        UserDto booker = userService.add(userDto1);
+        UserDto owner = userService.add(userDto2);
+        Long itemId = itemService.add(owner.getId(), itemReqDto2).getId();
+        assertEquals(List.of(), itemService.findById(booker.getId(), itemId).getComments());
+        assertNull(itemService.findById(owner.getId(), itemId).getLastBooking());
+
+        BookingRespDto bookingRespDto = bookingService.add(booker.getId(), bookingReqDto);
+        bookingService.update(owner.getId(), bookingRespDto.getId(), true);
+
+        assertEquals(bookingRespDto.getId(), itemService.findById(owner.getId(), itemId).getLastBooking().getId());
+
+        Thread.sleep(2000);
+        itemService.addComment(booker.getId(), commentReqDto, itemId);
+
+        assertEquals(1, itemService.findById(booker.getId(), itemId).getComments().size());
+        assertEquals(1, itemService.findById(owner.getId(), itemId).getComments().size());
+    }
+
+    @Test
+    @SneakyThrows
+    void whenItemOrItsBookingsChange_thenETagsChange() {
+        UserDto booker = userService.add(userDto1);
+        UserDto owner = userService.add(userDto2);
+        Long itemId = itemService.add(owner.getId(), itemReqDto2).getId();
+        String itemETag = itemService.findTaggedById(booker.getId(), itemId, eTag -> false).getETag();
+        String ownerETag = itemService.findTaggedById(owner.getId(), itemId, eTag -> false).getETag();
+        assertNotEquals(itemETag, ownerETag);
+        assertEquals(itemETag, itemService.findTaggedById(booker.getId(), itemId, eTag -> false).getETag());
+
+        itemService.update(owner.getId(), itemId, ItemReqDto.builder().name("renamed").build());
+        TaggedItem renamedItem = itemService.findTaggedById(booker.getId(), itemId, eTag -> false);
+        String renamedETag = renamedItem.getETag();
+        assertEquals("renamed", renamedItem.getItem().getName());
+        assertNotEquals(itemETag, renamedETag);
+
+        BookingRespDto bookingRespDto = bookingService.add(booker.getId(), bookingReqDto);
+        String bookingETag = bookingService.findETag(booker.getId(), bookingRespDto.getId());
+        assertEquals(renamedETag, itemService.findTaggedById(booker.getId(), itemId, eTag -> false).getETag());
+
+        bookingService.update(owner.getId(), bookingRespDto.getId(), true);
+        String approvedETag = itemService.findTaggedById(booker.getId(), itemId, eTag -> false).getETag();
+        assertNotEquals(renamedETag, approvedETag);
+        assertNotEquals(ownerETag, itemService.findTaggedById(owner.getId(), itemId, eTag -> false).getETag());
+        assertNotEquals(bookingETag, bookingService.findETag(owner.getId(), bookingRespDto.getId()));
+
+        Thread.sleep(2000);
+        itemService.addComment(booker.getId(), commentReqDto, itemId);
+        assertNotEquals(approvedETag, itemService.findTaggedById(booker.getId(), itemId, eTag -> false).getETag());
+    }
+
     @Test
     void addNewItem() {
         UserDto userDto = userService.add(userDto1);
@@ -119,6 +192,159 @@ public class ItemServiceIT {
         assertEquals("item3", itemRespDto.getName());
     }
 
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void whenSearching_thenItemsAreRankedByRelevance() {
+        UserDto userDto = userService.add(userDto1);
+        ItemRespDto drill = itemService.add(userDto.getId(), ItemReqDto.builder()
+                .name("Дрель")
+                .description("Ударная дрель, дрель для бетона")
+                .available(true)
+                .build());
+        ItemRespDto screwdriver = itemService.add(userDto.getId(), ItemReqDto.builder()
+                .name("Отвёртка")
+                .description("Аккумуляторная отвёртка, заменяет дрель")
+                .available(true)
+                .build());
+
+        assertEquals(List.of(drill.getId(), screwdriver.getId()), searchIds(userDto.getId(), "ДРЕЛЬ"));
+        assertEquals(List.of(screwdriver.getId()), searchIds(userDto.getId(), "аккум"));
+        assertEquals(List.of(), searchIds(userDto.getId(), "пила"));
+
+        itemService.update(userDto.getId(), drill.getId(), ItemReqDto.builder().available(false).build());
+
+        assertEquals(List.of(screwdriver.getId()), searchIds(userDto.getId(), "дрель"));
+    }
+
+    @Test
+    void whenItemIsNotCommitted_thenItIsNotSearchable() {
+        UserDto userDto = userService.add(userDto1);
+        itemService.add(userDto.getId(), itemReqDto1);
+
+        assertEquals(List.of(), searchIds(userDto.getId(), "item1"));
+        assertEquals(List.of(), suggestIds(userDto.getId(), "item"));
+    }
+
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void whenSuggesting_thenMostBookedItemsComeFirst() {
+        UserDto owner = userService.add(userDto1);
+        UserDto booker = userService.add(userDto2);
+        ItemRespDto drill = itemService.add(owner.getId(), ItemReqDto.builder()
+                .name("Drill")
+                .description("drill")
+                .available(true)
+                .build());
+        ItemRespDto driver = itemService.add(owner.getId(), ItemReqDto.builder()
+                .name("Screw driver")
+                .description("driver")
+                .available(true)
+                .build());
+
+        assertEquals(List.of(drill.getId(), driver.getId()), suggestIds(owner.getId(), "dr"));
+
+        bookingService.add(booker.getId(), BookingReqDto.builder()
+                .itemId(driver.getId())
+                .start(LocalDateTime.now().plusDays(1L))
+                .end(LocalDateTime.now().plusDays(2L))
+                .build());
+
+        assertEquals(List.of(driver.getId(), drill.getId()), suggestIds(owner.getId(), "DR"));
+        assertEquals(List.of(driver.getId(), drill.getId()), suggestIds(owner.getId(), "screw dri"));
+        assertEquals(List.of(driver.getId()), suggestIds(owner.getId(), "dril scr"));
+
+        itemService.update(owner.getId(), driver.getId(), ItemReqDto.builder().available(false).build());
+        itemService.update(owner.getId(), drill.getId(), ItemReqDto.builder().name("Hammer").build());
+
+        assertEquals(List.of(), suggestIds(owner.getId(), "dr"));
+        assertEquals(List.of(drill.getId()), suggestIds(owner.getId(), "ham"));
+    }
+
+    @Test
+    void whenFindingManyItems_thenUnknownIdsAreSkippedAndOrderIsKept() {
+        UserDto owner = userService.add(userDto1);
+        UserDto booker = userService.add(userDto2);
+        Long itemId1 = itemService.add(owner.getId(), itemReqDto1).getId();
+        Long itemId2 = itemService.add(owner.getId(), itemReqDto2).getId();
+        BookingRespDto bookingRespDto = bookingService.add(booker.getId(), bookingReqDto);
+        bookingService.update(owner.getId(), bookingRespDto.getId(), true);
+
+        List<ItemRespDto> ownerItems = itemService.findAllByIds(owner.getId(), List.of(itemId2, 42L, itemId1));
+        List<ItemRespDto> bookerItems = itemService.findAllByIds(booker.getId(), List.of(itemId1, itemId1));
+
+        assertEquals(List.of(itemId2, itemId1),
+                ownerItems.stream().map(ItemRespDto::getId).collect(Collectors.toList()));
+        assertNull(ownerItems.get(0).getLastBooking());
+        assertEquals(bookingRespDto.getId(), ownerItems.get(1).getLastBooking().getId());
+        assertEquals(1, bookerItems.size());
+        assertNull(bookerItems.get(0).getLastBooking());
+    }
+
+    @Test
+    @SneakyThrows
+    void whenItemHasManyComments_thenOnlyNewestAreEmbeddedAndRestArePaged() {
+        UserDto booker = userService.add(userDto1);
+        UserDto owner = userService.add(userDto2);
+        Long itemId = itemService.add(owner.getId(), itemReqDto2).getId();
+        BookingRespDto bookingRespDto = bookingService.add(booker.getId(), bookingReqDto);
+        bookingService.update(owner.getId(), bookingRespDto.getId(), true);
+        Thread.sleep(2000);
+        int commentCount = ItemServiceImpl.EMBEDDED_COMMENTS + 2;
+        for (int i = 0; i < commentCount; i++) {
+            itemService.addComment(booker.getId(), CommentReqDto.builder().text("comment " + i).build(), itemId);
+        }
+        // the count is bumped in bulk, so read the item afresh as the next request would
+        entityManager.flush();
+        entityManager.clear();
+
+        ItemRespDto itemRespDto = itemService.findById(booker.getId(), itemId);
+        List<String> pagedTexts = new ArrayList<>();
+        String cursor = null;
+        do {
+            CommentPageDto page = itemService.findComments(booker.getId(), itemId, cursor, 5);
+            page.getComments().forEach(comment -> pagedTexts.add(comment.getText()));
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+
+        assertEquals(commentCount, itemRespDto.getCommentCount());
+        assertEquals(ItemServiceImpl.EMBEDDED_COMMENTS, itemRespDto.getComments().size());
+        assertEquals("comment " + (commentCount - 1), itemRespDto.getComments().get(0).getText());
+        assertEquals(commentCount, pagedTexts.size());
+        assertEquals(commentCount, new HashSet<>(pagedTexts).size());
+        assertEquals(itemRespDto.getComments().stream().map(CommentRespDto::getText).collect(Collectors.toList()),
+                pagedTexts.subList(0, ItemServiceImpl.EMBEDDED_COMMENTS));
+    }
+
+    @Test
+    @SneakyThrows
+    void whenNextBookingStarts_thenOwnerListingMovesItToLastBeforeAndAfterSweep() {
+        UserDto booker = userService.add(userDto1);
+        UserDto owner = userService.add(userDto2);
+        Long itemId = itemService.add(owner.getId(), itemReqDto2).getId();
+        BookingRespDto bookingRespDto = bookingService.add(booker.getId(), BookingReqDto.builder()
+                .itemId(itemId)
+                .start(LocalDateTime.now().plusSeconds(2L))
+                .end(LocalDateTime.now().plusSeconds(3L))
+                .build());
+        bookingService.update(owner.getId(), bookingRespDto.getId(), true);
+
+        assertEquals(bookingRespDto.getId(), itemService.findAll(owner.getId(), 0, 10).get(0).getNextBooking().getId());
+        assertEquals(1L, itemBookingSummaryRepository.findById(itemId).orElseThrow().getApprovedCount());
+
+        Thread.sleep(2500);
+        ItemRespDto beforeSweep = itemService.findAll(owner.getId(), 0, 10).get(0);
+        itemBookingSummarySweeper.sweep();
+        ItemRespDto afterSweep = itemService.findAll(owner.getId(), 0, 10).get(0);
+
+        assertEquals(bookingRespDto.getId(), beforeSweep.getLastBooking().getId());
+        assertNull(beforeSweep.getNextBooking());
+        assertEquals(bookingRespDto.getId(), afterSweep.getLastBooking().getId());
+        assertNull(afterSweep.getNextBooking());
+        entityManager.clear();
+        assertEquals(bookingRespDto.getId(),
+                itemBookingSummaryRepository.findById(itemId).orElseThrow().getLastBookingId());
+    }
+
     @Test
     void whenItemIdIsNotValid_thenGetByIdThrows() {
         Long itemId = 5L;
@@ -126,4 +352,16 @@ public class ItemServiceIT {
         assertThrows(RuntimeException.class,
                 () -> itemService.findById(userDto1.getId(), itemId));
     }
+
+    private List<Long> searchIds(Long userId, String text) {
+        return itemService.search(userId, text, 0, 10).stream()
+                .map(ItemRespDto::getId)
+                .collect(Collectors.toList());
+    }
+
+    private List<Long> suggestIds(Long userId, String prefix) {
+        return itemService.suggest(userId, prefix, 10).stream()
+                .map(ItemSuggestionDto::getId)
+                .collect(Collectors.toList());
+    }
 }
@@ -6,36 +6,58 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.dto.BookingInterval;
+import ru.practicum.shareit.booking.index.BookingIntervalIndex;
+import ru.practicum.shareit.booking.dto.ItemBookingSummaryView;
+import ru.practicum.shareit.booking.dto.ItemBookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.repository.ItemBookingSummaryRepository;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.exception.ValidationException;
+import ru.practicum.shareit.item.dto.CommentPageDto;
 import ru.practicum.shareit.item.dto.CommentRespDto;
+import ru.practicum.shareit.item.dto.CommentView;
+import ru.practicum.shareit.item.dto.FreeSlotDto;
 import ru.practicum.shareit.item.dto.ItemReqDto;
 import ru.practicum.shareit.item.dto.ItemRespDto;
+import ru.practicum.shareit.item.dto.ItemVersion;
+import ru.practicum.shareit.item.dto.TaggedItem;
 import ru.practicum.shareit.item.mapper.CommentMapper;
 import ru.practicum.shareit.item.mapper.ItemMapper;
 import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.CommentCursor;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemCache;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
 import ru.practicum.shareit.request.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.User;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static java.util.stream.Collectors.toList;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -48,7 +70,15 @@ public class ItemServiceImplTest {
     @Mock
     private CommentRepository commentRepository;
     @Mock
+    private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemBookingSummaryRepository itemBookingSummaryRepository;
+    @Mock
     private UserService userService;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Spy
+    private ItemCache itemCache = new ItemCache(100L, Duration.ofMinutes(10L));
     @InjectMocks
     private ItemServiceImpl itemService;
 
@@ -87,6 +117,7 @@ public class ItemServiceImplTest {
             .description("description")
             .available(true)
             .comments(Collections.emptyList())
+            .commentCount(0L)
             .build();
 
     private final ItemReqDto updateItemReqDto = ItemReqDto.builder().build();
@@ -127,7 +158,7 @@ public class ItemServiceImplTest {
 
     @Test
     void findById() {
-        when(userService.findById(user.getId())).thenReturn(userDto);
+        stubVersion(0L);
         when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
 
         ItemRespDto actualItemRespDto = itemService.findById(user.getId(), item.getId());
@@ -135,6 +166,122 @@ public class ItemServiceImplTest {
         assertEquals(itemRespDto, actualItemRespDto);
     }
 
+    @Test
+    void whenItemIsCached_thenFindByIdDoesNotQueryAgain() {
+        stubVersion(0L);
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(commentRepository.findAllByItemId(item.getId(), PageRequest.of(0, ItemServiceImpl.EMBEDDED_COMMENTS)))
+                .thenReturn(List.of(comment));
+
+        ItemRespDto firstItemRespDto = itemService.findById(otherUser.getId(), item.getId());
+        ItemRespDto secondItemRespDto = itemService.findById(otherUser.getId(), item.getId());
+
+        assertSame(firstItemRespDto, secondItemRespDto);
+        assertEquals(1, secondItemRespDto.getComments().size());
+        verify(itemRepository, times(1)).findById(item.getId());
+        verify(commentRepository, times(1)).findAllByItemId(anyLong(), any());
+        verify(commentRepository, never()).findNewestByItemIdIn(anyCollection(), anyInt());
+        verify(itemBookingSummaryRepository, never()).findBookingsByItemIdIn(any());
+    }
+
+    @Test
+    void whenOwnerViewIsCached_thenFindByIdDoesNotQueryBookingsAgain() {
+        ItemBookingSummaryView nextBooking = summaryBookingView(2L, LocalDateTime.now().plusDays(1L), true);
+        stubVersion(0L);
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(itemBookingSummaryRepository.findBookingsByItemIdIn(List.of(item.getId())))
+                .thenReturn(List.of(nextBooking));
+
+        itemService.findById(otherUser.getId(), item.getId());
+        itemService.findById(user.getId(), item.getId());
+        TaggedItem ownerView = itemService.findTaggedById(user.getId(), item.getId(), eTag -> false);
+
+        assertEquals("0-owner", ownerView.getETag());
+        assertEquals(2L, ownerView.getItem().getNextBooking().getId());
+        assertEquals(item.getId(), ownerView.getItem().getNextBooking().getItem().getId());
+        verify(itemRepository, times(1)).findById(item.getId());
+        verify(itemBookingSummaryRepository, times(1)).findBookingsByItemIdIn(any());
+        verify(bookingRepository, never()).findLastAndNextBookings(any(), any());
+    }
+
+    @Test
+    void whenItemIsUpdated_thenFindByIdReadsItAgain() {
+        stubVersion(0L);
+        when(userService.findById(user.getId())).thenReturn(userDto);
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+
+        itemService.findById(otherUser.getId(), item.getId());
+        itemService.update(user.getId(), item.getId(), ItemReqDto.builder().name("renamed").build());
+        ItemRespDto actualItemRespDto = itemService.findById(otherUser.getId(), item.getId());
+
+        assertEquals("renamed", actualItemRespDto.getName());
+        verify(itemCache).evict(item.getId());
+    }
+
+    @Test
+    void whenVersionMoves_thenFindByIdReassemblesAndKeepsNewerView() {
+        Item renamedItem = Item.builder()
+                .id(item.getId())
+                .name("renamed")
+                .description("description")
+                .available(true)
+                .owner(user)
+                .build();
+        when(itemRepository.findVersionById(item.getId())).thenReturn(Optional.of(itemVersion(3L)), Optional.of(itemVersion(4L)));
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item), Optional.of(renamedItem));
+
+        itemService.findById(otherUser.getId(), item.getId());
+        ItemRespDto renamedView = itemService.findById(otherUser.getId(), item.getId());
+        itemCache.put(new ItemCache.CachedItem(3L, itemRespDto));
+
+        assertEquals("renamed", renamedView.getName());
+        assertSame(renamedView, itemService.findById(otherUser.getId(), item.getId()));
+        verify(itemRepository, times(2)).findById(item.getId());
+    }
+
+    @Test
+    void findTaggedByIdTagsTheViewWithItsVersion() {
+        LocalDateTime lastStart = LocalDateTime.now().minusDays(1L);
+        ItemBookingSummaryView lastBooking = summaryBookingView(2L, lastStart, false);
+        stubVersion(3L);
+        when(itemRepository.findById(item.getId())).thenReturn(Optional.of(item));
+        when(itemBookingSummaryRepository.findBookingsByItemIdIn(List.of(item.getId())))
+                .thenReturn(List.of(lastBooking));
+
+        TaggedItem itemView = itemService.findTaggedById(otherUser.getId(), item.getId(), eTag -> false);
+        TaggedItem ownerView = itemService.findTaggedById(user.getId(), item.getId(), eTag -> false);
+
+        assertEquals("3", itemView.getETag());
+        assertEquals("3-owner-" + lastStart, ownerView.getETag());
+        assertEquals(2L, ownerView.getItem().getLastBooking().getId());
+        assertEquals(ownerView.getETag(), itemService.findTaggedById(user.getId(), item.getId(), eTag -> false).getETag());
+        verify(itemBookingSummaryRepository, times(1)).findBookingsByItemIdIn(any());
+    }
+
+    @Test
+    void whenETagMatchesVersion_thenFindTaggedByIdAssemblesNoView() {
+        stubVersion(3L);
+
+        TaggedItem taggedItem = itemService.findTaggedById(otherUser.getId(), item.getId(), "3"::equals);
+
+        assertEquals("3", taggedItem.getETag());
+        assertNull(taggedItem.getItem());
+        verify(itemCache, never()).get(anyLong(), anyLong());
+        verify(itemRepository, never()).findById(any());
+        verify(commentRepository, never()).findAllByItemId(anyLong(), any());
+    }
+
+    @Test
+    void whenItemIsMissing_thenFindTaggedByIdThrowsNotFoundException() {
+        when(itemRepository.findVersionById(item.getId())).thenReturn(Optional.empty());
+
+        NotFoundException notFoundException = assertThrows(NotFoundException.class,
+                () -> itemService.findTaggedById(user.getId(), item.getId(), eTag -> false));
+
+        assertEquals("No item with id=1 found", notFoundException.getMessage());
+        verify(itemRepository, never()).findById(any());
+    }
+
     @Test
     void update() {
         ItemRequest itemRequest = ItemRequest.builder()
@@ -161,6 +308,32 @@ public class ItemServiceImplTest {
 
         assertEquals("updated item", savedItemDto.getName());
         assertEquals("updated description", savedItemDto.getDescription());
+        verify(itemSearchIndex).index(updatedItem);
+        verify(itemRequestRepository).incrementVersion(itemRequest.getId());
+    }
+
+    @Test
+    void searchReturnsItemsInIndexOrder() {
+        Item otherItem = Item.builder()
+                .id(2L)
+                .name("other item")
+                .description("other description")
+                .available(true)
+                .owner(otherUser)
+                .build();
+        when(itemSearchIndex.search("item", 10, 10)).thenReturn(List.of(2L, 1L, 3L));
+        when(itemRepository.findAllById(List.of(2L, 1L, 3L))).thenReturn(List.of(item, otherItem));
+
+        List<ItemRespDto> actualItemRespDtoList = itemService.search(user.getId(), "item", 15, 10);
+
+        assertEquals(List.of(2L, 1L), actualItemRespDtoList.stream().map(ItemRespDto::getId).collect(toList()));
+    }
+
+    @Test
+    void whenTextIsBlank_thenSearchReturnsEmptyList() {
+
+        assertEquals(List.of(), itemService.search(user.getId(), " ", 0, 10));
+        verify(itemSearchIndex, never()).search(anyString(), anyInt(), anyInt());
     }
 
     @Test
@@ -194,14 +367,39 @@ public class ItemServiceImplTest {
     }
 
     @Test
-    void findAllComments() {
-        List<CommentRespDto> expectedCommentsDtoList = List.of(CommentMapper.toCommentRespDto(comment));
-        when(commentRepository.findAllByItemId(item.getId())).thenReturn(List.of(comment));
+    void whenPageIsFull_thenFindCommentsReturnsCursorOfItsLastComment() {
+        when(itemRepository.existsById(item.getId())).thenReturn(true);
+        when(commentRepository.findAllByItemId(item.getId(), PageRequest.of(0, 1))).thenReturn(List.of(comment));
+
+        CommentPageDto commentPageDto = itemService.findComments(user.getId(), item.getId(), null, 1);
+
+        assertEquals(List.of(CommentMapper.toCommentRespDto(comment)), commentPageDto.getComments());
+        assertEquals(CommentCursor.of(comment), CommentCursor.decode(commentPageDto.getNextCursor()));
+    }
+
+    @Test
+    void whenCursorIsGiven_thenFindCommentsSeeksPastIt() {
+        CommentCursor cursor = CommentCursor.of(comment);
+        when(itemRepository.existsById(item.getId())).thenReturn(true);
+        when(commentRepository.findAllByItemIdAfter(item.getId(), cursor.getCreated(), cursor.getId(),
+                PageRequest.of(0, 10))).thenReturn(List.of());
+
+        CommentPageDto commentPageDto = itemService.findComments(user.getId(), item.getId(), cursor.encode(), 10);
+
+        assertEquals(List.of(), commentPageDto.getComments());
+        assertNull(commentPageDto.getNextCursor());
+        verify(commentRepository, never()).findAllByItemId(anyLong(), any());
+    }
 
-        List<CommentRespDto> actualCommentDtoList = itemService.findAllItemComments(item.getId());
+    @Test
+    void whenCursorOrItemIsNotValid_thenFindCommentsThrows() {
+        when(itemRepository.existsById(item.getId())).thenReturn(false);
 
-        assertEquals(1, actualCommentDtoList.size());
-        assertEquals(expectedCommentsDtoList, actualCommentDtoList);
+        assertThrows(ValidationException.class,
+                () -> itemService.findComments(user.getId(), item.getId(), "not a cursor", 10));
+        NotFoundException notFoundException = assertThrows(NotFoundException.class,
+                () -> itemService.findComments(user.getId(), item.getId(), null, 10));
+        assertEquals(String.format("No item with id=%s found", item.getId()), notFoundException.getMessage());
     }
 
     @Test
@@ -215,6 +413,87 @@ public class ItemServiceImplTest {
         assertEquals("item", actualItemRespDtoList.get(0).getName());
     }
 
+    @Test
+    void findAllWithLastAndNextBookings() {
+        ItemBookingSummaryView lastBooking = summaryBookingView(1L, LocalDateTime.now().minusDays(1L), false);
+        ItemBookingSummaryView nextBooking = summaryBookingView(2L, LocalDateTime.now().plusDays(1L), true);
+        when(itemRepository.findAllByOwnerId(anyLong(), any(Pageable.class))).thenReturn(List.of(item));
+        when(itemBookingSummaryRepository.findBookingsByItemIdIn(List.of(item.getId())))
+                .thenReturn(List.of(lastBooking, nextBooking));
+
+        List<ItemRespDto> actualItemRespDtoList = itemService.findAll(user.getId(), 0, 10);
+
+        assertEquals(1L, actualItemRespDtoList.get(0).getLastBooking().getId());
+        assertEquals(2L, actualItemRespDtoList.get(0).getNextBooking().getId());
+        assertEquals("user", actualItemRespDtoList.get(0).getNextBooking().getBooker().getName());
+        verify(bookingRepository, never()).findLastAndNextBookings(any(), any());
+    }
+
+    @Test
+    void whenSummaryNextBookingHasStarted_thenFindAllReadsBookingsOfThatItem() {
+        LocalDateTime startedAt = LocalDateTime.now().minusMinutes(1L);
+        ItemBookingSummaryView lastBooking = mock(ItemBookingSummaryView.class);
+        when(lastBooking.getNext()).thenReturn(false);
+        when(lastBooking.getItemId()).thenReturn(item.getId());
+        ItemBookingSummaryView startedBooking = mock(ItemBookingSummaryView.class);
+        when(startedBooking.getNext()).thenReturn(true);
+        when(startedBooking.getStart()).thenReturn(startedAt);
+        when(startedBooking.getItemId()).thenReturn(item.getId());
+        ItemBookingView lastBookingNow = bookingView(2L, startedAt);
+        ItemBookingView nextBooking = bookingView(3L, LocalDateTime.now().plusDays(1L));
+        when(itemRepository.findAllByOwnerId(anyLong(), any(Pageable.class))).thenReturn(List.of(item));
+        when(itemBookingSummaryRepository.findBookingsByItemIdIn(List.of(item.getId())))
+                .thenReturn(List.of(lastBooking, startedBooking));
+        when(bookingRepository.findLastAndNextBookings(eq(Set.of(item.getId())), any(LocalDateTime.class)))
+                .thenReturn(List.of(lastBookingNow, nextBooking));
+
+        List<ItemRespDto> actualItemRespDtoList = itemService.findAll(user.getId(), 0, 10);
+
+        assertEquals(2L, actualItemRespDtoList.get(0).getLastBooking().getId());
+        assertEquals(3L, actualItemRespDtoList.get(0).getNextBooking().getId());
+    }
+
+    @Test
+    void findAllByIdsKeepsRequestedOrderAndAddsBookingsToOwnItemsOnly() {
+        Item otherItem = Item.builder()
+                .id(2L)
+                .name("other item")
+                .description("other description")
+                .available(true)
+                .owner(otherUser)
+                .build();
+        CommentView otherComment = commentView(Comment.builder()
+                .id(2L)
+                .text("other comment")
+                .created(LocalDateTime.now())
+                .author(user)
+                .item(otherItem)
+                .build());
+        ItemBookingSummaryView nextBooking = summaryBookingView(3L, LocalDateTime.now().plusDays(1L), true);
+        when(itemRepository.findAllWithOwnerByIdIn(List.of(2L, 3L, 1L, 2L))).thenReturn(List.of(item, otherItem));
+        when(commentRepository.findNewestByItemIdIn(argThat(ids -> ids.size() == 2 && ids.containsAll(List.of(1L, 2L))),
+                eq(ItemServiceImpl.EMBEDDED_COMMENTS))).thenReturn(List.of(otherComment));
+        when(itemBookingSummaryRepository.findBookingsByItemIdIn(List.of(item.getId())))
+                .thenReturn(List.of(nextBooking));
+
+        List<ItemRespDto> items = itemService.findAllByIds(user.getId(), List.of(2L, 3L, 1L, 2L));
+
+        assertEquals(List.of(2L, 1L), items.stream().map(ItemRespDto::getId).collect(toList()));
+        assertEquals(1, items.get(0).getComments().size());
+        assertNull(items.get(0).getNextBooking());
+        assertEquals(List.of(), items.get(1).getComments());
+        assertEquals(3L, items.get(1).getNextBooking().getId());
+        verify(userService).checkExists(user.getId());
+    }
+
+    @Test
+    void whenNoItemIsFound_thenFindAllByIdsReturnsEmptyList() {
+        when(itemRepository.findAllWithOwnerByIdIn(List.of(5L))).thenReturn(List.of());
+
+        assertEquals(List.of(), itemService.findAllByIds(user.getId(), List.of(5L)));
+        verify(commentRepository, never()).findNewestByItemIdIn(any(), anyInt());
+    }
+
     @Test
     void addComment() {
         CommentRespDto expectedCommentRespDto = CommentMapper.toCommentRespDto(comment);
@@ -228,6 +507,8 @@ public class ItemServiceImplTest {
                 .addComment(user.getId(), CommentMapper.toCommentReqDto(comment), item.getId());
 
         assertEquals(expectedCommentRespDto, actualCommentRespDto);
+        verify(itemRepository).incrementCommentCount(item.getId());
+        verify(itemCache).evict(item.getId());
     }
 
     @Test
@@ -255,4 +536,113 @@ public class ItemServiceImplTest {
         assertEquals(String.format("User with id=%s has no bookings for item with id=%s", user.getId(), item.getId()),
                 validationException.getMessage());
     }
+
+    @Test
+    void whenBookingsOverlapAndTouch_thenFindAvailabilityReturnsGaps() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10L);
+        Stream<BookingInterval> bookings = Stream.of(
+                bookingInterval(from.minusDays(1L), from.plusDays(1L)),
+                bookingInterval(from.plusDays(2L), from.plusDays(5L)),
+                bookingInterval(from.plusDays(3L), from.plusDays(4L)),
+                bookingInterval(from.plusDays(5L), from.plusDays(6L)),
+                bookingInterval(from.plusDays(8L), from.plusDays(9L)));
+        when(itemRepository.existsById(item.getId())).thenReturn(true);
+        when(bookingRepository.streamIntervalsByItemIdAndStatusIn(item.getId(),
+                BookingIntervalIndex.BLOCKING_STATUSES, from, to))
+                .thenReturn(bookings);
+
+        List<FreeSlotDto> freeSlots = itemService.findAvailability(user.getId(), item.getId(), from, to);
+
+        assertEquals(List.of(
+                new FreeSlotDto(from.plusDays(1L), from.plusDays(2L)),
+                new FreeSlotDto(from.plusDays(6L), from.plusDays(8L)),
+                new FreeSlotDto(from.plusDays(9L), to)), freeSlots);
+        verify(userService).checkExists(user.getId());
+    }
+
+    @Test
+    void whenNoBookings_thenFindAvailabilityReturnsWholeWindow() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+        LocalDateTime to = from.plusDays(10L);
+        when(itemRepository.existsById(item.getId())).thenReturn(true);
+        when(bookingRepository.streamIntervalsByItemIdAndStatusIn(item.getId(),
+                BookingIntervalIndex.BLOCKING_STATUSES, from, to))
+                .thenReturn(Stream.empty());
+
+        assertEquals(List.of(new FreeSlotDto(from, to)),
+                itemService.findAvailability(user.getId(), item.getId(), from, to));
+    }
+
+    @Test
+    void whenWindowIsInvalidOrItemMissing_thenFindAvailabilityThrows() {
+        LocalDateTime from = LocalDateTime.of(2030, 1, 1, 0, 0);
+
+        ValidationException validationException = assertThrows(ValidationException.class,
+                () -> itemService.findAvailability(user.getId(), item.getId(), from, from));
+        assertEquals("Availability window must end after it starts", validationException.getMessage());
+
+        when(itemRepository.existsById(item.getId())).thenReturn(false);
+        NotFoundException notFoundException = assertThrows(NotFoundException.class,
+                () -> itemService.findAvailability(user.getId(), item.getId(), from, from.plusDays(1L)));
+        assertEquals("No item with id=1 found", notFoundException.getMessage());
+        verify(bookingRepository, never()).streamIntervalsByItemIdAndStatusIn(anyLong(), any(), any(), any());
+    }
+
+    private BookingInterval bookingInterval(LocalDateTime start, LocalDateTime end) {
+        BookingInterval interval = mock(BookingInterval.class);
+        when(interval.getStart()).thenReturn(start);
+        when(interval.getEnd()).thenReturn(end);
+        return interval;
+    }
+
+    private CommentView commentView(Comment comment) {
+        CommentView view = mock(CommentView.class);
+        when(view.getId()).thenReturn(comment.getId());
+        when(view.getText()).thenReturn(comment.getText());
+        when(view.getAuthorName()).thenReturn(comment.getAuthor().getName());
+        when(view.getCreated()).thenReturn(comment.getCreated());
+        when(view.getItemId()).thenReturn(comment.getItem().getId());
+        return view;
+    }
+
+    private void stubVersion(long version) {
+        when(itemRepository.findVersionById(item.getId())).thenReturn(Optional.of(itemVersion(version)));
+    }
+
+    private ItemVersion itemVersion(long version) {
+        return new ItemVersion() {
+            @Override
+            public Long getOwnerId() {
+                return item.getOwner().getId();
+            }
+
+            @Override
+            public Long getVersion() {
+                return version;
+            }
+        };
+    }
+
+    private ItemBookingSummaryView summaryBookingView(Long id, LocalDateTime start, boolean next) {
+        ItemBookingSummaryView view = stubBookingView(mock(ItemBookingSummaryView.class), id, start);
+        when(view.getNext()).thenReturn(next);
+        return view;
+    }
+
+    private ItemBookingView bookingView(Long id, LocalDateTime start) {
+        return stubBookingView(mock(ItemBookingView.class), id, start);
+    }
+
+    private <T extends ItemBookingView> T stubBookingView(T view, Long id, LocalDateTime start) {
+        when(view.getId()).thenReturn(id);
+        when(view.getItemId()).thenReturn(item.getId());
+        when(view.getStart()).thenReturn(start);
+        when(view.getEnd()).thenReturn(start.plusHours(1L));
+        when(view.getStatus()).thenReturn(BookingStatus.APPROVED.name());
+        when(view.getBookerId()).thenReturn(user.getId());
+        when(view.getBookerName()).thenReturn(user.getName());
+        when(view.getBookerEmail()).thenReturn(user.getEmail());
+        return view;
+    }
 }
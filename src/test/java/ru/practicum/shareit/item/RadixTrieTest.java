@@ -0,0 +1,100 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.search.RadixTrie;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class RadixTrieTest {
+    private final Map<Long, Long> popularity = new HashMap<>();
+    private final Comparator<Long> order = Comparator
+            .comparing((Long id) -> popularity.getOrDefault(id, 0L), Comparator.reverseOrder())
+            .thenComparing(Comparator.naturalOrder());
+
+    @Test
+    void whenTermsShareAPrefix_thenEdgesAreSplitAndMerged() {
+        RadixTrie trie = new RadixTrie(10, order);
+        trie.add("drill", 1L);
+        trie.add("driver", 2L);
+        trie.add("dr", 3L);
+
+        assertEquals(List.of(1L, 2L, 3L), trie.top("d", 10));
+        assertEquals(List.of(1L, 2L), trie.top("dri", 10));
+        assertEquals(List.of(2L), trie.top("driv", 10));
+        assertEquals(List.of(), trie.top("drills", 10));
+        assertEquals(List.of(), trie.top("dro", 10));
+
+        assertTrue(trie.remove("dr", 3L));
+        assertFalse(trie.remove("dr", 3L));
+        assertFalse(trie.remove("dri", 1L));
+        assertEquals(List.of(1L, 2L), trie.top("d", 10));
+        assertTrue(trie.remove("driver", 2L));
+        assertEquals(List.of(1L), trie.top("dri", 10));
+        assertEquals(List.of(1L), trie.top("drill", 10));
+    }
+
+    @Test
+    void whenPopularityChanges_thenRefreshReordersSuggestions() {
+        RadixTrie trie = new RadixTrie(2, order);
+        trie.add("saw", 1L);
+        trie.add("sander", 2L);
+        trie.add("scissors", 3L);
+
+        assertEquals(List.of(1L, 2L), trie.top("s", 5));
+
+        popularity.put(3L, 5L);
+        trie.refresh("scissors");
+
+        assertEquals(List.of(3L, 1L), trie.top("s", 5));
+        assertEquals(List.of(3L), trie.top("s", 1));
+    }
+
+    @Test
+    void topMatchesLinearScan() {
+        Random random = new Random(42);
+        RadixTrie trie = new RadixTrie(5, order);
+        List<Object[]> entries = new ArrayList<>();
+
+        for (long id = 1; id <= 2_000; id++) {
+            String term = randomTerm(random);
+            popularity.put(id, (long) random.nextInt(50));
+            trie.add(term, id);
+            entries.add(new Object[]{term, id});
+        }
+        for (int i = 0; i < 700; i++) {
+            Object[] removed = entries.remove(random.nextInt(entries.size()));
+            assertTrue(trie.remove((String) removed[0], (Long) removed[1]));
+        }
+
+        for (int i = 0; i < 500; i++) {
+            String prefix = randomTerm(random).substring(0, 1 + random.nextInt(2));
+            List<Long> expected = entries.stream()
+                    .filter(entry -> ((String) entry[0]).startsWith(prefix))
+                    .map(entry -> (Long) entry[1])
+                    .sorted(order)
+                    .limit(5)
+                    .collect(Collectors.toList());
+
+            assertEquals(expected, trie.top(prefix, 5), prefix);
+        }
+    }
+
+    private String randomTerm(Random random) {
+        StringBuilder term = new StringBuilder();
+        int length = 2 + random.nextInt(5);
+        for (int i = 0; i < length; i++) {
+            term.append((char) ('a' + random.nextInt(4)));
+        }
+        return term.toString();
+    }
+}
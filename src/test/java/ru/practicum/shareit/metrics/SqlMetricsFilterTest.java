@@ -0,0 +1,74 @@
+package ru.practicum.shareit.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.practicum.shareit.item.ItemController.USER_HEADER;
+
+@DirtiesContext
+@AutoConfigureMockMvc
+@SpringBootTest(properties = "shareit.sql-metrics.statement-budget=1")
+public class SqlMetricsFilterTest {
+    @Autowired
+    private MockMvc mockMvc;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Test
+    @SneakyThrows
+    void whenEndpointRunsStatements_thenTheyAreRecordedPerUriTemplate() {
+        mockMvc.perform(post("/users")
+                        .contentType("application/json")
+                        .content("{\"name\":\"user\",\"email\":\"user@mail.com\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/items")
+                        .header(USER_HEADER, 1L)
+                        .contentType("application/json")
+                        .content("{\"name\":\"item\",\"description\":\"description\",\"available\":true}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/items/{itemId}", 42)
+                        .header(USER_HEADER, 1L))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/items")
+                        .header(USER_HEADER, 1L))
+                .andExpect(status().isOk());
+
+        DistributionSummary addUser = meterRegistry.get("shareit.http.sql.statements")
+                .tags("method", "POST", "uri", "/users")
+                .summary();
+        DistributionSummary findItem = meterRegistry.get("shareit.http.sql.statements")
+                .tags("method", "GET", "uri", "/items/{itemId}")
+                .summary();
+        DistributionSummary findItems = meterRegistry.get("shareit.http.sql.statements")
+                .tags("method", "GET", "uri", "/items")
+                .summary();
+        assertEquals(1, addUser.count());
+        assertEquals(2.0, addUser.totalAmount());
+        assertEquals(1.0, findItem.totalAmount());
+        assertEquals(4.0, findItems.totalAmount());
+        Timer findItemsTime = meterRegistry.get("shareit.http.sql.time").tags("uri", "/items").timer();
+        assertEquals(1, findItemsTime.count());
+        assertTrue(findItemsTime.totalTime(TimeUnit.NANOSECONDS) > 0);
+        assertEquals(1.0, meterRegistry.get("shareit.http.sql.over.budget")
+                .tags("method", "GET", "uri", "/items")
+                .counter()
+                .count());
+        assertTrue(meterRegistry.find("shareit.http.sql.over.budget").tags("uri", "/items/{itemId}").counters()
+                .isEmpty());
+    }
+}
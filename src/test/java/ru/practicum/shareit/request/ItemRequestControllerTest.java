@@ -17,7 +17,10 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static ru.practicum.shareit.item.ItemController.USER_HEADER;
 
@@ -111,4 +114,36 @@ public class ItemRequestControllerTest {
 
         assertEquals(objectMapper.writeValueAsString(itemRequestRespDto), result);
     }
+
+    @Test
+    @SneakyThrows
+    void whenETagDiffers_thenFindRequestByIdReturnsBody() {
+        when(itemRequestService.findETag(user.getId(), itemRequestRespDto.getId())).thenReturn("4");
+        when(itemRequestService.findRequestById(user.getId(), itemRequestRespDto.getId()))
+                .thenReturn(itemRequestRespDto);
+
+        String result = mockMvc.perform(MockMvcRequestBuilders.get("/requests/{requestId}", itemRequestRespDto.getId())
+                        .header(USER_HEADER, user.getId())
+                        .header("If-None-Match", "\"3\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"4\""))
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+
+        assertEquals(objectMapper.writeValueAsString(itemRequestRespDto), result);
+    }
+
+    @Test
+    @SneakyThrows
+    void whenETagMatches_thenFindRequestByIdAnswersNotModified() {
+        when(itemRequestService.findETag(user.getId(), itemRequestRespDto.getId())).thenReturn("4");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/requests/{requestId}", itemRequestRespDto.getId())
+                        .header(USER_HEADER, user.getId())
+                        .header("If-None-Match", "\"4\""))
+                .andExpect(status().isNotModified());
+
+        verify(itemRequestService, never()).findRequestById(any(), any());
+    }
 }
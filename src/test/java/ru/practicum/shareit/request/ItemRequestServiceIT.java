@@ -1,23 +1,30 @@
 package ru.practicum.shareit.request;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.item.dto.ItemReqDto;
+import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.request.dto.ItemRequestReqDto;
 import ru.practicum.shareit.request.dto.ItemRequestRespDto;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.UserDto;
 import ru.practicum.shareit.user.service.UserService;
 
+import javax.persistence.EntityManager;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.jpa.properties.hibernate.generate_statistics=true")
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD)
 public class ItemRequestServiceIT {
 
@@ -25,6 +32,10 @@ public class ItemRequestServiceIT {
     private ItemRequestService itemRequestService;
     @Autowired
     private UserService userService;
+    @Autowired
+    private ItemService itemService;
+    @Autowired
+    private EntityManager entityManager;
 
     private final UserDto userDto = UserDto.builder()
             .name("user")
@@ -52,4 +63,56 @@ public class ItemRequestServiceIT {
         assertThrows(RuntimeException.class,
                 () -> itemRequestService.findRequestById(userDto.getId(), requestId));
     }
+
+    @Test
+    void whenAnsweringItemChanges_thenETagChanges() {
+        UserDto requestor = userService.add(userDto);
+        UserDto owner = userService.add(UserDto.builder().name("owner").email("owner@mail.com").build());
+        Long requestId = itemRequestService.add(requestor.getId(), itemRequestReqDto).getId();
+        String requestETag = itemRequestService.findETag(requestor.getId(), requestId);
+
+        Long itemId = itemService.add(owner.getId(), ItemReqDto.builder()
+                .name("item")
+                .description("description")
+                .available(true)
+                .requestId(requestId)
+                .build()).getId();
+        String answeredETag = itemRequestService.findETag(requestor.getId(), requestId);
+        assertNotEquals(requestETag, answeredETag);
+
+        itemService.update(owner.getId(), itemId, ItemReqDto.builder().available(false).build());
+        assertNotEquals(answeredETag, itemRequestService.findETag(requestor.getId(), requestId));
+    }
+
+    @Test
+    void whenPageGrows_thenStatementCountStaysConstant() {
+        UserDto requestor = userService.add(userDto);
+        UserDto owner = userService.add(UserDto.builder().name("owner").email("owner@mail.com").build());
+        for (int i = 0; i < 10; i++) {
+            ItemRequestRespDto request = itemRequestService.add(requestor.getId(), itemRequestReqDto);
+            for (int j = 0; j < 2; j++) {
+                itemService.add(owner.getId(), ItemReqDto.builder()
+                        .name("item")
+                        .description("description")
+                        .available(true)
+                        .requestId(request.getId())
+                        .build());
+            }
+        }
+        entityManager.flush();
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        for (int size : List.of(1, 5, 10)) {
+            entityManager.clear();
+            statistics.clear();
+
+            List<ItemRequestRespDto> requests = itemRequestService.findAllRequests(owner.getId(), 0, size);
+
+            assertEquals(size, requests.size());
+            assertEquals(2, requests.get(size - 1).getItems().size());
+            assertEquals(2, statistics.getPrepareStatementCount(), "page size " + size);
+        }
+    }
 }
@@ -8,6 +8,7 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.request.dto.ItemRequestReqDto;
 import ru.practicum.shareit.request.dto.ItemRequestRespDto;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
@@ -31,6 +32,8 @@ public class ItemRequestServiceImplTest {
     @Mock
     private ItemRequestRepository itemRequestRepository;
     @Mock
+    private ItemRepository itemRepository;
+    @Mock
     private UserService userService;
     @InjectMocks
     private ItemRequestServiceImpl itemRequestService;
@@ -61,6 +64,15 @@ public class ItemRequestServiceImplTest {
             .items(List.of(item))
             .build();
 
+    private final Item answeringItem = Item.builder()
+            .id(2L)
+            .name("answer")
+            .description("answer description")
+            .available(true)
+            .owner(user)
+            .request(itemRequest)
+            .build();
+
     @Test
     void addNewRequest() {
         ItemRequestReqDto itemRequestReqDto = ItemRequestMapper.toItemRequestReqDto(itemRequest);
@@ -76,9 +88,10 @@ public class ItemRequestServiceImplTest {
     @Test
     void findUserRequests() {
         List<ItemRequestRespDto> expectedItemRequestRespDtos = List.of(ItemRequestMapper
-                .toItemRequestRespDto(itemRequest));
-        when(userService.findById(user.getId())).thenReturn(userDto);
+                .toItemRequestRespDto(itemRequest, List.of(answeringItem)));
         when(itemRequestRepository.findAllByRequestorId(userDto.getId())).thenReturn(List.of(itemRequest));
+        when(itemRepository.findAllByRequestIdIn(List.of(itemRequest.getId())))
+                .thenReturn(List.of(answeringItem));
 
         List<ItemRequestRespDto> actualItemRequestRespDtos = itemRequestService.findUserRequests(userDto.getId());
 
@@ -88,10 +101,11 @@ public class ItemRequestServiceImplTest {
     @Test
     void findAllRequests() {
         List<ItemRequestRespDto> expectedItemRequestRespDtos = List.of(ItemRequestMapper
-                .toItemRequestRespDto(itemRequest));
-        when(userService.findById(user.getId())).thenReturn(userDto);
+                .toItemRequestRespDto(itemRequest, List.of(answeringItem)));
         when(itemRequestRepository.findAllByRequestorIdNotOrderByCreatedDesc(anyLong(), any(PageRequest.class)))
                 .thenReturn(List.of(itemRequest));
+        when(itemRepository.findAllByRequestIdIn(List.of(itemRequest.getId())))
+                .thenReturn(List.of(answeringItem));
 
         List<ItemRequestRespDto> actualItemRequestRespDtos = itemRequestService
                 .findAllRequests(userDto.getId(), 0, 10);
@@ -101,9 +115,11 @@ public class ItemRequestServiceImplTest {
 
     @Test
     void findRequestById() {
-        ItemRequestRespDto expectedItemRequestRespDto = ItemRequestMapper.toItemRequestRespDto(itemRequest);
-        when(userService.findById(user.getId())).thenReturn(userDto);
+        ItemRequestRespDto expectedItemRequestRespDto = ItemRequestMapper
+                .toItemRequestRespDto(itemRequest, List.of(answeringItem));
         when(itemRequestRepository.findById(itemRequest.getId())).thenReturn(Optional.of(itemRequest));
+        when(itemRepository.findAllByRequestIdIn(List.of(itemRequest.getId())))
+                .thenReturn(List.of(answeringItem));
 
         ItemRequestRespDto actualItemRequestRespDto = itemRequestService
                 .findRequestById(userDto.getId(), itemRequest.getId());
@@ -113,7 +129,6 @@ public class ItemRequestServiceImplTest {
 
     @Test
     void whenRequestIdIsNotValid_thenFindByIdThrowsNotFoundException() {
-        when(userService.findById(user.getId())).thenReturn(userDto);
         when(itemRequestRepository.findById(itemRequest.getId())).thenReturn(Optional.empty());
 
         NotFoundException notFoundException = assertThrows(NotFoundException.class,
@@ -122,4 +137,15 @@ public class ItemRequestServiceImplTest {
         assertEquals(String.format("No Item Request with id=%s found", itemRequest.getId()),
                 notFoundException.getMessage());
     }
+
+    @Test
+    void findETagReturnsRequestVersion() {
+        when(itemRequestRepository.findVersionById(itemRequest.getId())).thenReturn(Optional.of(4L));
+        when(itemRequestRepository.findVersionById(2L)).thenReturn(Optional.empty());
+
+        assertEquals("4", itemRequestService.findETag(user.getId(), itemRequest.getId()));
+        NotFoundException notFoundException = assertThrows(NotFoundException.class,
+                () -> itemRequestService.findETag(user.getId(), 2L));
+        assertEquals("No Item Request with id=2 found", notFoundException.getMessage());
+    }
 }
@@ -5,11 +5,14 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import ru.practicum.shareit.exception.NotFoundException;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserCache;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
+import java.time.Duration;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -22,6 +25,8 @@ public class UserServiceImplTest {
 
     @Mock
     private UserRepository userRepository;
+    @Spy
+    private UserCache userCache = new UserCache(100, Duration.ofMinutes(10));
     @InjectMocks
     private UserServiceImpl userService;
 
@@ -116,4 +121,55 @@ public class UserServiceImplTest {
 
         verify(userRepository, times(1)).deleteById(userId);
     }
+
+    @Test
+    void whenUserIsCached_thenFindByIdDoesNotQueryRepository() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(UserMapper.toUser(userDto)));
+
+        assertEquals(userDto, userService.findById(1L));
+        assertTrue(userService.existsCached(1L));
+        userService.checkExists(1L);
+
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void whenUserIsUpdatedOrDeleted_thenCacheIsEvicted() {
+        when(userRepository.findById(1L)).thenReturn(Optional.of(UserMapper.toUser(userDto)));
+        userService.findById(1L);
+
+        userService.update(1L, UserDto.builder().name("update").build());
+        assertEquals("update", userService.findById(1L).getName());
+
+        userService.delete(1L);
+        when(userRepository.findById(1L)).thenReturn(Optional.empty());
+        assertFalse(userService.existsCached(1L));
+
+        verify(userRepository, times(4)).findById(1L);
+    }
+
+    @Test
+    void whenUserIsEvictedDuringRead_thenReadIsNotCached() {
+        when(userRepository.findById(1L)).thenAnswer(invocation -> {
+            userCache.evict(1L);
+            return Optional.of(UserMapper.toUser(userDto));
+        });
+
+        userService.findById(1L);
+        userService.findById(1L);
+
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void whenUserDoesNotExist_thenCheckExistsThrowsAndNothingIsCached() {
+        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertFalse(userService.existsCached(2L));
+        NotFoundException notFoundException = assertThrows(NotFoundException.class,
+                () -> userService.checkExists(2L));
+
+        assertEquals("No user with id=2 found", notFoundException.getMessage());
+        verify(userRepository, times(2)).findById(2L);
+    }
 }